@@ -0,0 +1,66 @@
+import axios from 'axios';
+
+const REFRESH_URL = 'http://localhost:8081/api/auth/refresh';
+
+// Where each side keeps its tokens, and where to send it when it has to log in again
+const SESSIONS = [
+  { token: 'driverToken', refreshToken: 'driverRefreshToken', login: '/driver-login' },
+  { token: 'token', refreshToken: 'refreshToken', login: '/login' },
+];
+
+// One refresh per session at a time: a refresh token only works once, and reusing it logs the user out everywhere
+const inFlight = {};
+
+const sessionFor = (config) => {
+  const header = config.headers?.Authorization || config.headers?.authorization;
+  if (!header) return null;
+  return SESSIONS.find((s) => {
+    const token = localStorage.getItem(s.token);
+    return token && header === `Bearer ${token}`;
+  }) || null;
+};
+
+const refresh = (session) => {
+  if (!inFlight[session.token]) {
+    const refreshToken = localStorage.getItem(session.refreshToken);
+    inFlight[session.token] = (refreshToken
+      ? axios.post(REFRESH_URL, { refreshToken }, { skipAuthRefresh: true })
+      : Promise.reject(new Error('No refresh token')))
+      .then((response) => {
+        localStorage.setItem(session.token, response.data.token);
+        localStorage.setItem(session.refreshToken, response.data.refreshToken);
+        return response.data.token;
+      })
+      .finally(() => {
+        delete inFlight[session.token];
+      });
+  }
+  return inFlight[session.token];
+};
+
+// Access tokens last 15 minutes: on a 401, trade the refresh token for a new pair and retry the request once
+axios.interceptors.response.use(undefined, async (error) => {
+  const config = error.config;
+  if (error.response?.status !== 401 || !config || config.skipAuthRefresh || config.authRetried) {
+    throw error;
+  }
+  const session = sessionFor(config);
+  if (!session) {
+    throw error;
+  }
+
+  let token;
+  try {
+    token = await refresh(session);
+  } catch {
+    // Refresh token expired or revoked: back to the login page
+    localStorage.removeItem(session.token);
+    localStorage.removeItem(session.refreshToken);
+    window.location.assign(session.login);
+    throw error;
+  }
+
+  config.authRetried = true;
+  config.headers.Authorization = `Bearer ${token}`;
+  return axios(config);
+});
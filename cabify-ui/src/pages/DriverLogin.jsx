@@ -31,6 +31,7 @@ const DriverLogin = () => {
           localStorage.setItem('driverToken', token);
           localStorage.setItem('driverInfo', JSON.stringify(driverInfo)); 
           localStorage.setItem('driverEmail', formData.email); 
+          localStorage.setItem('driverRefreshToken', loginData.refreshToken);
 
           toast.success(`Welcome back, ${driverInfo.name}! 🚕`, {
             position: "top-right",
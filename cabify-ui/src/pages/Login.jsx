@@ -36,6 +36,8 @@ const Login = () => {
           // 3. CRITICAL: Save Token AND Email
           localStorage.setItem('token', token);
           localStorage.setItem('email', formData.email); // Booking page needs this!
+          // Access token only lasts 15 minutes; the axios interceptor renews it with this
+          localStorage.setItem('refreshToken', response.data.refreshToken);
           
           toast.success("Login Successful! Redirecting...", {
             position: "top-right",
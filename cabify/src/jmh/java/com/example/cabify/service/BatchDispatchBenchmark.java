@@ -0,0 +1,93 @@
+package com.example.cabify.service;
+
+import com.example.cabify.model.DriverStatus;
+import com.example.cabify.model.Zone;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching one window of bookings in a zone: the batch dispatcher's min-cost assignment against each booking
+ * greedily claiming its nearest cab, as bookRide does. Both claim real drivers in the availability index and
+ * hand them back afterwards; the database half of booking is left out. Scores are per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BatchDispatchBenchmark {
+
+    private static final Zone ZONE = Zone.CENTRAL_SOUTH;
+
+    @Param({"16", "128"})
+    private int batchSize;
+
+    @Param({"500"})
+    private int drivers;
+
+    private DriverAvailabilityIndex index;
+    private BatchDispatchService batchDispatchService;
+    private final List<List<double[]>> batches = new ArrayList<>();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        index = new DriverAvailabilityIndex();
+        batchDispatchService = new BatchDispatchService();
+        ReflectionTestUtils.setField(batchDispatchService, "driverAvailabilityIndex", index);
+
+        // Drivers and riders cluster around the zone's pickup locations
+        double[][] hubs = {Zone.pointOf("Adyar"), Zone.pointOf("Guindy"), Zone.pointOf("Velachery")};
+        Random random = new Random(42);
+        for (long id = 1; id <= drivers; id++) {
+            double[] hub = hubs[random.nextInt(hubs.length)];
+            index.moveTo(id, hub[0] + random.nextGaussian() * 0.01, hub[1] + random.nextGaussian() * 0.01);
+            index.update(id, DriverStatus.AVAILABLE);
+        }
+        for (int b = 0; b < 64; b++) {
+            List<double[]> batch = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                double[] hub = hubs[random.nextInt(hubs.length)];
+                batch.add(new double[]{hub[0] + random.nextGaussian() * 0.005, hub[1] + random.nextGaussian() * 0.005});
+            }
+            batches.add(batch);
+        }
+    }
+
+    @Benchmark
+    public Long[] batched() {
+        Long[] claimed = batchDispatchService.match(ZONE, batches.get(next++ & 63));
+        for (Long driverId : claimed) {
+            if (driverId != null) {
+                index.release(driverId);
+            }
+        }
+        return claimed;
+    }
+
+    @Benchmark
+    public Long[] greedy() {
+        List<double[]> batch = batches.get(next++ & 63);
+        Long[] claimed = new Long[batch.size()];
+        for (int i = 0; i < claimed.length; i++) {
+            double[] pickup = batch.get(i);
+            claimed[i] = index.claimNearest(ZONE, pickup[0], pickup[1]);
+        }
+        for (Long driverId : claimed) {
+            if (driverId != null) {
+                index.release(driverId);
+            }
+        }
+        return claimed;
+    }
+}
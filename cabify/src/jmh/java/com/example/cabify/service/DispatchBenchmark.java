@@ -0,0 +1,52 @@
+package com.example.cabify.service;
+
+import com.example.cabify.model.DriverStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory half of booking: claim the nearest free driver to a pickup and hand it back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DispatchBenchmark {
+
+    @Param({"1000", "50000"})
+    private int drivers;
+
+    private DriverAvailabilityIndex index;
+    private double[][] pickups;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        index = new DriverAvailabilityIndex();
+        Random random = new Random(42);
+        for (long id = 1; id <= drivers; id++) {
+            index.moveTo(id, 12.8 + random.nextDouble() * 0.3, 80.1 + random.nextDouble() * 0.2);
+            index.update(id, DriverStatus.AVAILABLE);
+        }
+        pickups = new double[1024][];
+        for (int i = 0; i < pickups.length; i++) {
+            pickups[i] = new double[]{12.8 + random.nextDouble() * 0.3, 80.1 + random.nextDouble() * 0.2};
+        }
+    }
+
+    @Benchmark
+    public Long claimNearestAndRelease() {
+        double[] pickup = pickups[next++ & 1023];
+        Long driverId = index.claimNearest(pickup[0], pickup[1]);
+        index.release(driverId);
+        return driverId;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.ride.RoutePairDto;
+import com.example.cabify.dto.ride.FareQuoteDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fare estimate and location lookup paths of RideServiceImpl, wired by hand with the bundled pricing.json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FareBenchmark {
+
+    private RideServiceImpl rideService;
+    private PricingConfig pricingConfig;
+    private List<RoutePairDto> grid;
+    private int next;
+
+    // User input arrives in any case, which is what the lookups have to fold
+    private static final String[][] ROUTES = {
+            {"adyar", "GUINDY"}, {"Kelambakkam", "marina"}, {"TNagar", "Velachery"}, {"navalur", "AnnaNagar"}
+    };
+
+    @Setup
+    public void setUp() {
+        pricingConfig = new PricingConfig();
+        rideService = new RideServiceImpl();
+        ReflectionTestUtils.setField(rideService, "pricingConfig", pricingConfig);
+        ReflectionTestUtils.setField(rideService, "surgePricingEngine", new SurgePricingEngine());
+
+        // Every ordered pair of locations, like a partner pulling a full origin-destination grid
+        grid = new ArrayList<>();
+        for (String from : rideService.getAvailableLocations()) {
+            for (String to : rideService.getAvailableLocations()) {
+                if (!from.equals(to)) {
+                    grid.add(new RoutePairDto(from, to));
+                }
+            }
+        }
+    }
+
+    private String[] route() {
+        return ROUTES[next++ & 3];
+    }
+
+    @Benchmark
+    public double calculateFare() {
+        String[] route = route();
+        return rideService.calculateFare(route[0], route[1]);
+    }
+
+    // The location check behind every fare and booking: case-folded name -> id
+    @Benchmark
+    public int resolveLocation() {
+        return pricingConfig.current().locations().idOf(route()[0]);
+    }
+
+    @Benchmark
+    public double[] getPickupPoint() {
+        return rideService.getPickupPoint(route()[0]);
+    }
+
+    @Benchmark
+    public List<String> getAvailableLocations() {
+        return rideService.getAvailableLocations();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<FareQuoteDto> estimateFullGrid() {
+        return rideService.estimateFares(grid);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.driver.DriverDto;
+import com.example.cabify.dto.payment.PaymentResponseDto;
+import com.example.cabify.dto.rating.RatingResponseDto;
+import com.example.cabify.dto.ride.RideResponseDto;
+import com.example.cabify.dto.user.UserProfileDto;
+import com.example.cabify.model.Driver;
+import com.example.cabify.model.DriverStatus;
+import com.example.cabify.model.Payment;
+import com.example.cabify.model.PaymentMethod;
+import com.example.cabify.model.PaymentStatus;
+import com.example.cabify.model.Rating;
+import com.example.cabify.model.Ride;
+import com.example.cabify.model.RideStatus;
+import com.example.cabify.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity -> DTO mapping of each service, on fully populated detached entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappingBenchmark {
+
+    private final RideServiceImpl rideService = new RideServiceImpl();
+    private final DriverServiceImpl driverService = new DriverServiceImpl();
+    private final PaymentServiceImpl paymentService = new PaymentServiceImpl();
+    private final RatingServiceImpl ratingService = new RatingServiceImpl();
+    private final UserServiceImpl userService = new UserServiceImpl();
+
+    private User user;
+    private Driver driver;
+    private Ride ride;
+    private Payment payment;
+    private Rating rating;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        user = new User(1L, "asha@example.com", "Asha", 9876543210L, "$2a$10$hash", now);
+        driver = new Driver(7L, "Ravi", "ravi@example.com", "$2a$10$hash", "9876500000", "TN01-2020-0001",
+                "Swift Dzire", "TN 09 AB 1234", DriverStatus.BUSY, 13.0012, 80.2565);
+
+        ride = new Ride();
+        ride.setId(42L);
+        ride.setUser(user);
+        ride.setDriver(driver);
+        ride.setSource("Adyar");
+        ride.setDestination("Guindy");
+        ride.setFare(70.0);
+        ride.setStatus(RideStatus.BOOKED);
+        ride.setStartTime(now);
+
+        payment = new Payment(3L, ride, user, 70.0, PaymentMethod.UPI, PaymentStatus.SUCCESS, now);
+        rating = new Rating(5L, ride, 1L, 7L, 5, "Smooth ride", now);
+    }
+
+    @Benchmark
+    public RideResponseDto ride() {
+        return rideService.mapToDto(ride);
+    }
+
+    @Benchmark
+    public DriverDto driver() {
+        return driverService.mapToDto(driver);
+    }
+
+    @Benchmark
+    public PaymentResponseDto payment() {
+        return paymentService.mapToDto(payment);
+    }
+
+    @Benchmark
+    public RatingResponseDto rating() {
+        return ratingService.mapToResponseDto(rating);
+    }
+
+    @Benchmark
+    public UserProfileDto user() {
+        return userService.mapToDto(user);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.cabify.service;
+
+import com.example.cabify.CabifyApplication;
+import com.example.cabify.dto.ride.RideRequestDto;
+import com.example.cabify.dto.ride.RideResponseDto;
+import com.example.cabify.model.Driver;
+import com.example.cabify.model.DriverStatus;
+import com.example.cabify.model.User;
+import com.example.cabify.model.Zone;
+import com.example.cabify.repository.DriverRepository;
+import com.example.cabify.repository.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Book a ride and end it, through the real services and an in-memory H2 database, with eight riders at once.
+ * Alongside the latency, JMH reports secondary results: the rides completed, the JDBC statements they prepared
+ * and how many of those were inserts. Divide by rides for statements per book+end pair; with batching a batch is
+ * one statement, so that number tracks database round trips. Compare batch sizes with -p batchSize=1,50.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class RideLifecycleBenchmark {
+
+    private static final int DRIVERS = 32;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private IRideService rideService;
+    private final List<Long> riderIds = new ArrayList<>();
+    private final AtomicInteger nextRider = new AtomicInteger();
+
+    // Counts the statements Hibernate prepares on each thread, so every rider only sees its own
+    public static class StatementCounter implements StatementInspector {
+        private static final ThreadLocal<long[]> PREPARED = ThreadLocal.withInitial(() -> new long[2]);
+
+        @Override
+        public String inspect(String sql) {
+            long[] counts = PREPARED.get();
+            counts[0]++;
+            if (sql.regionMatches(true, 0, "insert", 0, 6)) {
+                counts[1]++;
+            }
+            return sql;
+        }
+    }
+
+    // Each benchmark thread is one rider going back and forth between two pickups. The public fields are JMH
+    // secondary results, summed over the riders
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Rider {
+        private final RideRequestDto request = new RideRequestDto();
+        public long rides;
+        public long statements;
+        public long inserts;
+
+        @Setup(Level.Iteration)
+        public void resetCounts() {
+            rides = 0;
+            statements = 0;
+            inserts = 0;
+        }
+
+        @Setup
+        public void setUp(RideLifecycleBenchmark benchmark) {
+            request.setUserId(benchmark.riderIds.get(benchmark.nextRider.getAndIncrement()));
+            request.setSource("Adyar");
+            request.setDestination("Guindy");
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(CabifyApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:ride-benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                                + StatementCounter.class.getName(),
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.cabify=OFF",
+                        "logging.file.name=",
+                        "cabify.archive.enabled=false")
+                .run();
+        rideService = context.getBean(IRideService.class);
+
+        UserRepository users = context.getBean(UserRepository.class);
+        for (int i = 0; i < 64; i++) {
+            riderIds.add(users.save(new User(null, "bench" + i + "@example.com", "Rider " + i, 9100000000L + i, "pw", null))
+                    .getUserId());
+        }
+        DriverRepository drivers = context.getBean(DriverRepository.class);
+        double[] adyar = Zone.pointOf("Adyar");
+        for (int i = 0; i < DRIVERS; i++) {
+            Driver driver = new Driver();
+            driver.setName("Driver " + i);
+            driver.setEmail("bench-driver" + i + "@example.com");
+            driver.setLicenseNumber("BENCH-" + i);
+            driver.setStatus(DriverStatus.AVAILABLE);
+            driver.setLatitude(adyar[0]);
+            driver.setLongitude(adyar[1]);
+            drivers.save(driver);
+        }
+        context.getBean(DriverAvailabilityIndex.class).rebuild();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public RideResponseDto bookAndEndRide(Rider rider) {
+        long[] prepared = StatementCounter.PREPARED.get();
+        long statementsBefore = prepared[0];
+        long insertsBefore = prepared[1];
+        RideResponseDto booked = rideService.bookRide(rider.request);
+        RideResponseDto ended = rideService.endRide(booked.getRideId());
+        // Next trip starts where this one dropped off
+        String source = rider.request.getSource();
+        rider.request.setSource(rider.request.getDestination());
+        rider.request.setDestination(source);
+        rider.rides++;
+        rider.statements += prepared[0] - statementsBefore;
+        rider.inserts += prepared[1] - insertsBefore;
+        return ended;
+    }
+}
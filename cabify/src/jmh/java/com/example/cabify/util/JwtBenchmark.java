@@ -0,0 +1,73 @@
+package com.example.cabify.util;
+
+import com.example.cabify.service.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token work done on every authenticated request (validate, or cachedValidate once the token has been seen) and on
+ * every login (generate).
+ * legacyRequestPath is what JwtRequestFilter used to do per request, kept here for comparison: split the token,
+ * then build a fresh parser and verify the signature three times (username, then username and expiry again).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-32-bytes-long";
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache verifiedTokenCache;
+    private SecretKey key;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET);
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        token = jwtUtil.generateToken("asha@example.com", 42L, JwtPrincipal.Role.RIDER);
+        verifiedTokenCache = new VerifiedTokenCache(jwtUtil);
+    }
+
+    @Benchmark
+    public JwtPrincipal validate() {
+        return jwtUtil.validate(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal cachedValidate() {
+        return verifiedTokenCache.validate(token);
+    }
+
+    @Benchmark
+    public boolean legacyRequestPath() {
+        if (token.split("\\.").length != 3) {
+            return false;
+        }
+        String username = legacyClaims().getSubject();
+        return legacyClaims().getSubject().equals(username) && !legacyClaims().getExpiration().before(new Date());
+    }
+
+    private Claims legacyClaims() {
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("asha@example.com", 42L, JwtPrincipal.Role.RIDER);
+    }
+}
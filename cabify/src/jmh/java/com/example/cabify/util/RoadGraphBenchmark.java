@@ -0,0 +1,57 @@
+package com.example.cabify.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A* distance between random node pairs on a synthetic graph from RoadGraphGenerator, written to a temp file and
+ * memory-mapped like the real one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoadGraphBenchmark {
+
+    @Param({"1000000"})
+    private int edges;
+
+    private Path file;
+    private RoadGraph graph;
+    private final int[][] pairs = new int[1024][];
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("cabify-road", ".graph");
+        RoadGraphGenerator.generate(file, edges, 42L);
+        graph = RoadGraph.open(file);
+        Random random = new Random(7L);
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new int[]{random.nextInt(graph.nodeCount()), random.nextInt(graph.nodeCount())};
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public double route() {
+        int[] pair = pairs[next++ & 1023];
+        return graph.distanceKm(pair[0], pair[1]);
+    }
+}
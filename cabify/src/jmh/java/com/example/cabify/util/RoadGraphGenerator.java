@@ -0,0 +1,98 @@
+package com.example.cabify.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Offline tool: writes a synthetic road graph over the city's bounding box, for RoadGraphBenchmark or to point
+ * cabify.routing.graph-file at on a test box.
+ *
+ * The graph is a jittered square grid of two-way streets, sized to roughly the requested number of directed
+ * edges. Street lengths are the straight-line distance stretched by up to 30%, so they stay valid for A*.
+ *
+ * Usage, after mvn -P benchmark test-compile:
+ * java -cp target/classes:target/test-classes com.example.cabify.util.RoadGraphGenerator &lt;file&gt; [edges=1000000]
+ */
+public final class RoadGraphGenerator {
+
+    // Roughly Anna Nagar down to Kelambakkam, Tambaram across to the coast
+    private static final double MIN_LAT = 12.75;
+    private static final double MAX_LAT = 13.15;
+    private static final double MIN_LON = 80.05;
+    private static final double MAX_LON = 80.30;
+
+    private RoadGraphGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: RoadGraphGenerator <file> [edges=1000000]");
+            System.exit(1);
+        }
+        Path file = Path.of(args[0]);
+        int edges = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        long started = System.nanoTime();
+        generate(file, edges, 42L);
+        RoadGraph graph = RoadGraph.open(file);
+        System.out.printf("Wrote %,d nodes and %,d edges to %s in %d ms%n", graph.nodeCount(), graph.edgeCount(),
+                file, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Writes a jittered grid graph with about the given number of directed edges. Same seed, same graph.
+     */
+    public static void generate(Path file, int targetEdges, long seed) throws IOException {
+        // An n x n grid of two-way streets has 4n(n-1) directed edges
+        int side = Math.max(2, (int) Math.ceil((1 + Math.sqrt(1 + targetEdges)) / 2));
+        int nodes = side * side;
+        Random random = new Random(seed);
+
+        double latStep = (MAX_LAT - MIN_LAT) / (side - 1);
+        double lonStep = (MAX_LON - MIN_LON) / (side - 1);
+        double[] latitudes = new double[nodes];
+        double[] longitudes = new double[nodes];
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                latitudes[r * side + c] = MIN_LAT + r * latStep + (random.nextDouble() - 0.5) * latStep * 0.4;
+                longitudes[r * side + c] = MIN_LON + c * lonStep + (random.nextDouble() - 0.5) * lonStep * 0.4;
+            }
+        }
+
+        int[] firstEdge = new int[nodes + 1];
+        int[] targets = new int[4 * side * (side - 1)];
+        float[] lengths = new float[targets.length];
+        int e = 0;
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int node = r * side + c;
+                firstEdge[node] = e;
+                int[][] steps = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+                for (int[] step : steps) {
+                    int nr = r + step[0];
+                    int nc = c + step[1];
+                    if (nr < 0 || nr >= side || nc < 0 || nc >= side) {
+                        continue;
+                    }
+                    int next = nr * side + nc;
+                    targets[e] = next;
+                    lengths[e] = streetLength(latitudes, longitudes, node, next);
+                    e++;
+                }
+            }
+        }
+        firstEdge[nodes] = e;
+
+        RoadGraph.write(file, latitudes, longitudes, firstEdge, targets, lengths);
+    }
+
+    // Same length both ways, never below the straight line (rounded up so the float can't undercut it)
+    private static float streetLength(double[] latitudes, double[] longitudes, int a, int b) {
+        int low = Math.min(a, b);
+        int high = Math.max(a, b);
+        double straight = GeoGridIndex.distanceKm(latitudes[low], longitudes[low], latitudes[high], longitudes[high]);
+        double stretch = 1.0 + new Random(((long) low << 32) | high).nextDouble() * 0.3;
+        return Math.nextUp((float) (straight * stretch));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.cabify.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves the pooled id generators of rides, payments and ratings past the ids already in their tables, before the
+ * app takes any traffic.
+ *
+ * Databases created while those tables used AUTO_INCREMENT have rows above where a fresh generator starts, so the
+ * first pooled blocks would hand out ids that are taken. Runs once the schema is up to date (it depends on the
+ * entity manager factory) and only ever moves a generator forward. A generator that can't be read, e.g. because
+ * ddl-auto is off and nobody created it, stops startup instead of failing on the first insert.
+ *
+ * MySQL keeps each generator in a one-row table (ride_seq.next_val), which is moved with a compare-and-set so
+ * two instances starting together can't move it back. Databases with real sequences get ALTER SEQUENCE RESTART.
+ */
+@Component
+@Slf4j
+public class IdSequenceAligner {
+
+    // allocationSize of the entities' @SequenceGenerator
+    static final int ALLOCATION_SIZE = 50;
+
+    // Generator, and every table/id column whose ids it has handed out (archived rides keep their original id)
+    record Generator(String name, List<String> maxIdQueries) {
+    }
+
+    static final List<Generator> GENERATORS = List.of(
+            new Generator("ride_seq", List.of("SELECT MAX(id) FROM ride", "SELECT MAX(id) FROM ride_archive")),
+            new Generator("payment_seq", List.of("SELECT MAX(payment_id) FROM payments")),
+            new Generator("rating_seq", List.of("SELECT MAX(rating_id) FROM ratings")));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void align() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        boolean nativeSequences = dialect.getSequenceSupport().supportsSequences();
+        for (Generator generator : GENERATORS) {
+            long maxId = 0;
+            for (String query : generator.maxIdQueries()) {
+                Long max = jdbcTemplate.queryForObject(query, Long.class);
+                maxId = Math.max(maxId, max == null ? 0 : max);
+            }
+            try {
+                if (nativeSequences) {
+                    alignSequence(dialect, generator.name(), maxId);
+                } else {
+                    alignTable(generator.name(), maxId);
+                }
+            } catch (DataAccessException e) {
+                throw new IllegalStateException("Id generator " + generator.name() + " is missing or unreadable; "
+                        + "create it (spring.jpa.hibernate.ddl-auto=update does) before starting the app", e);
+            }
+        }
+    }
+
+    // The pooled optimizer turns a fetched value V into the block V - ALLOCATION_SIZE + 1 .. V, which has to clear
+    // every existing id
+    private static boolean collides(long nextValue, long maxId) {
+        return maxId > 0 && nextValue - ALLOCATION_SIZE < maxId;
+    }
+
+    private void alignTable(String table, long maxId) {
+        Long nextValue = jdbcTemplate.queryForObject("SELECT next_val FROM " + table, Long.class);
+        if (nextValue != null && !collides(nextValue, maxId)) {
+            return;
+        }
+        long target = maxId + 2 * ALLOCATION_SIZE;
+        int updated = jdbcTemplate.update("UPDATE " + table + " SET next_val = ? WHERE next_val = ?", target, nextValue);
+        if (updated == 0) {
+            // Someone else moved it in the meantime; their value already clears the existing ids
+            log.info("Id generator {} was moved by another instance", table);
+            return;
+        }
+        log.warn("Id generator {} was at {}, behind existing id {}; moved to {}", table, nextValue, maxId, target);
+    }
+
+    private void alignSequence(Dialect dialect, String sequence, long maxId) {
+        // Reading a sequence consumes a value; the gap is harmless
+        Long nextValue = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence),
+                Long.class);
+        if (nextValue != null && !collides(nextValue, maxId)) {
+            return;
+        }
+        long target = maxId + 2 * ALLOCATION_SIZE;
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + target);
+        log.warn("Id sequence {} was at {}, behind existing id {}; restarted at {}", sequence, nextValue, maxId, target);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.cabify.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Decides whether a connection is taken from the read replica (see {@link ReplicaDataSourceConfig}).
+ *
+ * Only read-only transactions started in the service layer go to the replica. The read-only transactions Spring
+ * Data opens around a single repository call stay on the primary, because callers outside a transaction often
+ * read a row there and then write it back.
+ *
+ * Read-your-writes: a rider or driver who just booked or ended a ride has their reads pinned to the primary for
+ * cabify.datasource.replica.read-your-writes-ms, longer than the replica is expected to lag. A pin only takes
+ * effect if it is set before the transaction's first statement, since that is when the connection is chosen.
+ */
+@Component
+public class ReplicaRouting {
+
+    private static final String SERVICE_PACKAGE = "com.example.cabify.service.";
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    @Value("${cabify.datasource.replica.read-your-writes-ms:5000}")
+    private long readYourWritesMs;
+
+    // Keys of riders, drivers and rides written within the window
+    private Cache<String, Boolean> recentWrites;
+
+    @PostConstruct
+    public void init() {
+        recentWrites = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofMillis(readYourWritesMs))
+                .build();
+    }
+
+    public static String user(Long userId) {
+        return "user:" + userId;
+    }
+
+    public static String driver(Long driverId) {
+        return "driver:" + driverId;
+    }
+
+    public static String ride(Long rideId) {
+        return "ride:" + rideId;
+    }
+
+    boolean useReplica() {
+        String transaction = TransactionSynchronizationManager.getCurrentTransactionName();
+        return PRIMARY_PINNED.get() == null
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && transaction != null && transaction.startsWith(SERVICE_PACKAGE);
+    }
+
+    // Remembers the keys once the current transaction commits (right away without one)
+    public void recordWrite(String... keys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(keys);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(keys);
+            }
+        });
+    }
+
+    private void remember(String... keys) {
+        for (String key : keys) {
+            recentWrites.put(key, Boolean.TRUE);
+        }
+    }
+
+    // Pins the rest of the current transaction to the primary if the key was written recently
+    public void readYourWrites(String key) {
+        if (recentWrites.getIfPresent(key) == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || PRIMARY_PINNED.get() != null) {
+            return;
+        }
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                PRIMARY_PINNED.remove();
+            }
+        });
+    }
+
+    // For reads whose result is cached: a replica row could be stale for as long as the cache keeps it. Like any
+    // pin, this has no effect inside a transaction that already ran a statement; call it outside one, or with the
+    // transaction suspended (see IdentityCache)
+    public <T> T onPrimary(Supplier<T> read) {
+        if (PRIMARY_PINNED.get() != null) {
+            return read.get();
+        }
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_PINNED.remove();
+        }
+    }
+}
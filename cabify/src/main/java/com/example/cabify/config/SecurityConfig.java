@@ -4,6 +4,7 @@ import com.example.cabify.filter.JwtRequestFilter;
 import com.example.cabify.service.CustomUserDetailsService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -14,6 +15,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -42,13 +44,32 @@ public class SecurityConfig {
                                 "/api/users/login",
                                 "/api/drivers/register",
                                 "/api/drivers/login",
+                                "/api/auth/refresh",
                                 "/error"
                         ).permitAll()
+                        // Driver endpoints: the URLs the filter used to resolve against the drivers table
+                        .requestMatchers(
+                                "/api/drivers/**",
+                                "/api/rides/active-request/**",
+                                "/api/rides/driver/history/**",
+                                "/api/rides/*/end"
+                        ).hasRole("DRIVER")
+                        // Everything else a client calls is the rider's side
+                        .requestMatchers(
+                                "/api/users/**",
+                                "/api/rides/**",
+                                "/api/payments/**",
+                                "/api/ratings/**"
+                        ).hasRole("RIDER")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
+                // No valid token (missing, expired, revoked) is a 401 so clients know to refresh; a wrong role stays 403
+                .exceptionHandling(e -> e
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+                )
                 .authenticationProvider(authenticationProvider())
                 .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
 
@@ -0,0 +1,23 @@
+package com.example.cabify.controller;
+
+import com.example.cabify.dto.user.AuthResponseDto;
+import com.example.cabify.dto.user.RefreshRequestDto;
+import com.example.cabify.service.AuthTokenService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/auth/")
+public class AuthController {
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    // Riders and drivers alike: trade a refresh token for a new access token and refresh token, no password needed
+    @PostMapping("refresh")
+    public ResponseEntity<AuthResponseDto> refresh(@Valid @RequestBody RefreshRequestDto request) {
+        return ResponseEntity.ok(authTokenService.refresh(request.getRefreshToken()));
+    }
+}
@@ -4,12 +4,17 @@ import com.example.cabify.dto.SuccessResponse;
 import com.example.cabify.dto.driver.DriverDto;
 import com.example.cabify.dto.driver.DriverLoginRequestDto;
 import com.example.cabify.dto.driver.DriverLoginResponseDto;
+import com.example.cabify.dto.user.AuthResponseDto;
+import com.example.cabify.dto.user.RefreshRequestDto;
+import com.example.cabify.service.AuthTokenService;
 import com.example.cabify.service.IDriverService;
-import com.example.cabify.util.JwtUtil;
+import com.example.cabify.service.TokenDenyList;
+import com.example.cabify.util.JwtPrincipal;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -22,7 +27,10 @@ public class DriverController {
     private IDriverService driverService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private TokenDenyList tokenDenyList;
     // 1. Register a Driver
     @PostMapping("register")
     public ResponseEntity<SuccessResponse<DriverDto>> registerDriver(@Valid @RequestBody DriverDto driverDto) {
@@ -53,7 +61,9 @@ public class DriverController {
    @PutMapping("status/{id}")
     public ResponseEntity<SuccessResponse<DriverDto>> updateDriverStatus(
             @PathVariable Long id,
-            @RequestParam("status") String status) {
+            @RequestParam("status") String status,
+            @AuthenticationPrincipal JwtPrincipal principal) {
+        JwtPrincipal.requireSelf(principal, id);
 
         // 🚀 Ensure status is passed in correct format (e.g., uppercase) to the service
         DriverDto updatedDriver = driverService.updateDriverStatus(id, status.toUpperCase());
@@ -65,9 +75,29 @@ public class DriverController {
         ), HttpStatus.OK);
     }
 
+    // Driver app reports its position so bookings can be dispatched to the nearest cab
+    @PutMapping("location/{id}")
+    public ResponseEntity<SuccessResponse<DriverDto>> updateDriverLocation(
+            @PathVariable Long id,
+            @RequestParam("latitude") double latitude,
+            @RequestParam("longitude") double longitude,
+            @AuthenticationPrincipal JwtPrincipal principal) {
+        JwtPrincipal.requireSelf(principal, id);
+
+        DriverDto updatedDriver = driverService.updateDriverLocation(id, latitude, longitude);
+
+        return new ResponseEntity<>(new SuccessResponse<>(
+                "Location updated",
+                HttpStatus.OK.value(),
+                updatedDriver
+        ), HttpStatus.OK);
+    }
+
     // 4. Get Driver Profile (UPDATED)
     @GetMapping("{id}")
-    public ResponseEntity<SuccessResponse<DriverDto>> getDriverById(@PathVariable Long id) {
+    public ResponseEntity<SuccessResponse<DriverDto>> getDriverById(@PathVariable Long id,
+                                                                    @AuthenticationPrincipal JwtPrincipal principal) {
+        JwtPrincipal.requireSelf(principal, id);
         DriverDto driver = driverService.getDriverById(id);
 
         SuccessResponse<DriverDto> response = new SuccessResponse<>(
@@ -86,12 +116,26 @@ public class DriverController {
         // ✅ CORRECT: Pass the whole object
         DriverDto driverDto = driverService.loginDriver(loginRequest);
 
-        String token = jwtUtil.generateToken(driverDto.getEmail());
+        AuthResponseDto tokens = authTokenService.login(driverDto.getEmail(), driverDto.getDriverId(), JwtPrincipal.Role.DRIVER);
 
         return new ResponseEntity<>(new SuccessResponse<>(
                 "Login successful!",
                 HttpStatus.OK.value(),
-                new DriverLoginResponseDto(token, driverDto)),
+                new DriverLoginResponseDto(tokens.getToken(), tokens.getRefreshToken(), tokens.getExpiresIn(), driverDto)),
                 HttpStatus.OK);
     }
+
+    // Revokes the token this request was made with, and the refresh token if one is sent
+    @PostMapping("logout")
+    public ResponseEntity<SuccessResponse<Void>> logoutDriver(@AuthenticationPrincipal JwtPrincipal principal,
+                                                              @RequestBody(required = false) RefreshRequestDto refresh) {
+        if (principal == null) {
+            throw new IllegalArgumentException("This token can't be revoked; it expires on its own");
+        }
+        tokenDenyList.revoke(principal);
+        if (refresh != null && refresh.getRefreshToken() != null) {
+            authTokenService.revoke(refresh.getRefreshToken());
+        }
+        return new ResponseEntity<>(new SuccessResponse<>("Logged out", HttpStatus.OK.value(), null), HttpStatus.OK);
+    }
 }
\ No newline at end of file
@@ -62,4 +62,30 @@ public class RatingController {
 
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
-}
\ No newline at end of file
+
+    @GetMapping("driver/{driverId}")
+    public ResponseEntity<SuccessResponse<List<RatingResponseDto>>> getRatingsForDriver(@PathVariable Long driverId) {
+        List<RatingResponseDto> ratings = ratingService.getRatingsForDriver(driverId);
+
+        SuccessResponse<List<RatingResponseDto>> response = new SuccessResponse<>(
+                "Ratings retrieved successfully",
+                HttpStatus.OK.value(),
+                ratings
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("driver/{driverId}/average")
+    public ResponseEntity<SuccessResponse<Double>> getAverageRatingForDriver(@PathVariable Long driverId) {
+        Double average = ratingService.getAverageRatingForDriver(driverId);
+
+        SuccessResponse<Double> response = new SuccessResponse<>(
+                average != null ? "Average rating retrieved successfully" : "No ratings yet",
+                HttpStatus.OK.value(),
+                average
+        );
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+}
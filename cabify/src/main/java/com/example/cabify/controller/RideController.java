@@ -1,17 +1,24 @@
 package com.example.cabify.controller;
 
+import com.example.cabify.dto.ride.FareEstimateRequestDto;
+import com.example.cabify.dto.ride.FareQuoteDto;
+import com.example.cabify.dto.ride.RideHistoryPageDto;
 import com.example.cabify.dto.ride.RideRequestDto;
 import com.example.cabify.dto.ride.RideResponseDto;
 import com.example.cabify.dto.SuccessResponse;
+import com.example.cabify.service.BatchDispatchService;
 import com.example.cabify.service.IRideService;
+import com.example.cabify.util.JwtPrincipal;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/rides")
@@ -20,19 +27,22 @@ public class RideController {
     @Autowired
     private IRideService rideService;
 
-    // 1. Book a Ride
-    @PostMapping("/book")
-    public ResponseEntity<SuccessResponse<RideResponseDto>> bookRide(@Valid @RequestBody RideRequestDto request) {
-        RideResponseDto response = rideService.bookRide(request);
-
-        // Passing message, 201 status code, and the data object
-        SuccessResponse<RideResponseDto> successResponse = new SuccessResponse<>(
-                "Ride booked successfully",
-                HttpStatus.CREATED.value(),
-                response
-        );
+    @Autowired
+    private BatchDispatchService batchDispatchService;
 
-        return new ResponseEntity<>(successResponse, HttpStatus.CREATED);
+    // 1. Book a Ride (goes through the batch dispatcher when it is enabled, so the response is asynchronous)
+    @PostMapping("/book")
+    public CompletableFuture<ResponseEntity<SuccessResponse<RideResponseDto>>> bookRide(@Valid @RequestBody RideRequestDto request) {
+        return batchDispatchService.submit(request).thenApply(response -> {
+            // Passing message, 201 status code, and the data object
+            SuccessResponse<RideResponseDto> successResponse = new SuccessResponse<>(
+                    "Ride booked successfully",
+                    HttpStatus.CREATED.value(),
+                    response
+            );
+
+            return new ResponseEntity<>(successResponse, HttpStatus.CREATED);
+        });
     }
 
     // 2. End a Ride
@@ -89,9 +99,41 @@ public ResponseEntity<SuccessResponse<List<String>>> getLocations() {
 
         return new ResponseEntity<>(successResponse, HttpStatus.OK);
     }
+
+    // Prices a trip between two coordinates over the road graph (only when cabify.routing.graph-file is set)
+    @GetMapping("/estimate/point")
+    public ResponseEntity<SuccessResponse<Double>> estimateFareBetweenPoints(@RequestParam double sourceLat,
+            @RequestParam double sourceLon, @RequestParam double destinationLat, @RequestParam double destinationLon) {
+        Double fare = rideService.calculateFare(new double[]{sourceLat, sourceLon},
+                new double[]{destinationLat, destinationLon});
+
+        SuccessResponse<Double> successResponse = new SuccessResponse<>(
+                "Fare estimated successfully",
+                HttpStatus.OK.value(),
+                fare
+        );
+
+        return new ResponseEntity<>(successResponse, HttpStatus.OK);
+    }
+
+    // Prices many routes in one call (e.g. a whole origin-destination grid); bad routes get an error entry
+    @PostMapping("/estimate/batch")
+    public ResponseEntity<SuccessResponse<List<FareQuoteDto>>> estimateFares(@Valid @RequestBody FareEstimateRequestDto request) {
+        List<FareQuoteDto> quotes = rideService.estimateFares(request.getRoutes());
+
+        SuccessResponse<List<FareQuoteDto>> successResponse = new SuccessResponse<>(
+                "Fares estimated successfully",
+                HttpStatus.OK.value(),
+                quotes
+        );
+
+        return new ResponseEntity<>(successResponse, HttpStatus.OK);
+    }
     // Add this method inside your RideController class
 @GetMapping("/active-request/{driverId}")
-public ResponseEntity<SuccessResponse<RideResponseDto>> getActiveRide(@PathVariable Long driverId) {
+public ResponseEntity<SuccessResponse<RideResponseDto>> getActiveRide(@PathVariable Long driverId,
+                                                                      @AuthenticationPrincipal JwtPrincipal principal) {
+    JwtPrincipal.requireSelf(principal, driverId);
     
     // Call the new service method
     RideResponseDto activeRide = rideService.getActiveRideForDriver(driverId);
@@ -124,7 +166,9 @@ public ResponseEntity<SuccessResponse<RideResponseDto>> getActiveRide(@PathVaria
     }
     // 4. Get Driver History (Matches your Frontend URL)
     @GetMapping("/driver/history/{driverId}")
-    public ResponseEntity<SuccessResponse<List<RideResponseDto>>> getDriverHistory(@PathVariable Long driverId) {
+    public ResponseEntity<SuccessResponse<List<RideResponseDto>>> getDriverHistory(@PathVariable Long driverId,
+            @AuthenticationPrincipal JwtPrincipal principal) {
+        JwtPrincipal.requireSelf(principal, driverId);
         
         // You need to create this method in your Service
         List<RideResponseDto> history = rideService.getDriverRideHistory(driverId);
@@ -137,4 +181,31 @@ public ResponseEntity<SuccessResponse<RideResponseDto>> getActiveRide(@PathVaria
 
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
-}
\ No newline at end of file
+
+    // Paged versions of the history endpoints. ?cursor= walks back through older rides, ?since= returns only
+    // rides added or changed after an earlier response's changesCursor (for polling)
+    @GetMapping("/history/page")
+    public ResponseEntity<SuccessResponse<RideHistoryPageDto>> getMyHistoryPage(Principal principal,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "20") int size) {
+        RideHistoryPageDto page = rideService.getMyRidesPage(principal.getName(), cursor, since, size);
+        return ResponseEntity.ok(new SuccessResponse<>("User history fetched successfully", HttpStatus.OK.value(), page));
+    }
+
+    @GetMapping("/history/{userId}/page")
+    public ResponseEntity<SuccessResponse<RideHistoryPageDto>> getHistoryPage(@PathVariable Long userId,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "20") int size) {
+        RideHistoryPageDto page = rideService.getMyRidesPage(userId, cursor, since, size);
+        return ResponseEntity.ok(new SuccessResponse<>("Ride history fetched successfully", HttpStatus.OK.value(), page));
+    }
+
+    @GetMapping("/driver/history/{driverId}/page")
+    public ResponseEntity<SuccessResponse<RideHistoryPageDto>> getDriverHistoryPage(@PathVariable Long driverId,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "20") int size, @AuthenticationPrincipal JwtPrincipal principal) {
+        JwtPrincipal.requireSelf(principal, driverId);
+        RideHistoryPageDto page = rideService.getDriverRideHistoryPage(driverId, cursor, since, size);
+        return ResponseEntity.ok(new SuccessResponse<>("Driver history fetched successfully", HttpStatus.OK.value(), page));
+    }
+}
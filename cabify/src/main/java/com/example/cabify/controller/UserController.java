@@ -1,21 +1,22 @@
 package com.example.cabify.controller;
 
 import com.example.cabify.dto.SuccessResponse;
-import com.example.cabify.dto.user.AuthResponseDto;
+import com.example.cabify.dto.user.RefreshRequestDto;
 import com.example.cabify.dto.user.LoginRequestDto;
 import com.example.cabify.dto.user.UserProfileDto;
 import com.example.cabify.model.User;
+import com.example.cabify.service.AuthTokenService;
 import com.example.cabify.service.IUserService;
-import com.example.cabify.util.JwtUtil;
+import com.example.cabify.service.TokenDenyList;
+import com.example.cabify.util.JwtPrincipal;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/api/users/")
@@ -25,10 +26,10 @@ public class UserController {
     private IUserService userService;
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private TokenDenyList tokenDenyList;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private AuthTokenService authTokenService;
 
     @PostMapping("register")
         public ResponseEntity<SuccessResponse<UserProfileDto>> registerUser(@Valid @RequestBody User user) {
@@ -43,19 +44,29 @@ public class UserController {
 
     @PostMapping("login")
     public ResponseEntity<?> userLogin(@Valid @RequestBody LoginRequestDto loginRequestDto) throws Exception {
+        UserProfileDto user;
         try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            loginRequestDto.getEmail(),
-                            loginRequestDto.getPassword()
-                    )
-            );
-        } catch (BadCredentialsException e) {
+            // Same password check the authentication manager did, but it also gives us the id for the token
+            user = userService.userLogin(loginRequestDto);
+        } catch (NoSuchElementException | IllegalArgumentException e) {
             throw new Exception("Incorrect email or password", e);
         }
 
-        final String jwt = jwtUtil.generateToken(loginRequestDto.getEmail());
-        return ResponseEntity.ok(new AuthResponseDto(jwt));
+        return ResponseEntity.ok(authTokenService.login(user.getEmail(), user.getUserId(), JwtPrincipal.Role.RIDER));
+    }
+
+    // Revokes the token this request was made with, and the refresh token if one is sent
+    @PostMapping("logout")
+    public ResponseEntity<SuccessResponse<Void>> logout(@AuthenticationPrincipal JwtPrincipal principal,
+                                                        @RequestBody(required = false) RefreshRequestDto refresh) {
+        if (principal == null) {
+            throw new IllegalArgumentException("This token can't be revoked; it expires on its own");
+        }
+        tokenDenyList.revoke(principal);
+        if (refresh != null && refresh.getRefreshToken() != null) {
+            authTokenService.revoke(refresh.getRefreshToken());
+        }
+        return ResponseEntity.ok(new SuccessResponse<>("Logged out", HttpStatus.OK.value(), null));
     }
 
     @GetMapping("profile/{id}")
@@ -40,4 +40,7 @@ public class DriverDto {
     private String vehiclePlate;
 
     private DriverStatus status;
+
+    private Double latitude;
+    private Double longitude;
 }
\ No newline at end of file
@@ -7,5 +7,7 @@ import lombok.Data;
 @AllArgsConstructor
 public class DriverLoginResponseDto {
     private String token; 
+    private String refreshToken;
+    private long expiresIn;
     private DriverDto driver;
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package com.example.cabify.dto.event;
+
+import com.example.cabify.model.OutboxEventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// What subscribers receive. Delivery is at-least-once, so eventId is the key to deduplicate on.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideEventMessage {
+    private Long eventId;
+    private OutboxEventType type;
+    private Long rideId;
+    private LocalDateTime createdAt;
+    private RideEventPayload payload;
+}
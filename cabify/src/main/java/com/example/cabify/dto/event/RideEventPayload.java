@@ -0,0 +1,26 @@
+package com.example.cabify.dto.event;
+
+import com.example.cabify.model.PaymentMethod;
+import com.example.cabify.model.PaymentStatus;
+import com.example.cabify.model.RideStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// State of the ride (and its payment, when there is one) as of the event
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideEventPayload {
+    private Long rideId;
+    private Long userId;
+    private Long driverId;
+    private String source;
+    private String destination;
+    private RideStatus status;
+    private Double fare;
+    private Long paymentId;
+    private Double paymentAmount;
+    private PaymentMethod paymentMethod;
+    private PaymentStatus paymentStatus;
+}
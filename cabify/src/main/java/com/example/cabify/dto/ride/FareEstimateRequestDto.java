@@ -0,0 +1,16 @@
+package com.example.cabify.dto.ride;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class FareEstimateRequestDto {
+
+    @NotEmpty(message = "At least one route is required")
+    @Size(max = 500, message = "At most 500 routes per request")
+    private List<@Valid RoutePairDto> routes;
+}
@@ -0,0 +1,16 @@
+package com.example.cabify.dto.ride;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One priced route of a batch estimate; fare is null and error says why when the route can't be priced
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FareQuoteDto {
+    private String source;
+    private String destination;
+    private Double fare;
+    private String error;
+}
@@ -0,0 +1,30 @@
+package com.example.cabify.dto.ride;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a ride listing: the (timestamp, ride id) of the last row a client has seen. Handed out as an
+ * opaque URL-safe token; clients only ever pass it back.
+ */
+public record RideCursor(LocalDateTime at, Long id) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((at + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RideCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            return new RideCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+
+    public static RideCursor of(RideResponseDto ride, boolean byChange) {
+        return new RideCursor(byChange ? ride.getUpdatedAt() : ride.getBookingTime(), ride.getRideId());
+    }
+}
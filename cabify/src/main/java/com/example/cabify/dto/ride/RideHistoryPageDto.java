@@ -0,0 +1,19 @@
+package com.example.cabify.dto.ride;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One page of ride history.
+// nextCursor: pass back as ?cursor= for the next (older) page; null on the last page.
+// changesCursor: pass back as ?since= to get only rides added or changed after this response.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideHistoryPageDto {
+    private List<RideResponseDto> rides;
+    private String nextCursor;
+    private String changesCursor;
+}
@@ -1,10 +1,15 @@
 package com.example.cabify.dto.ride;
 
 import com.example.cabify.model.RideStatus;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor // Used by the history projection queries in RideRepository; keep the field order in sync
 public class RideResponseDto {
     private Long rideId;
     private String userName; 
@@ -16,4 +21,5 @@ public class RideResponseDto {
     private RideStatus status;      
     private Double fare;
     private LocalDateTime bookingTime;
+    private LocalDateTime updatedAt;
 }
\ No newline at end of file
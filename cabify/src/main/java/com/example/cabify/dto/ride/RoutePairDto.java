@@ -0,0 +1,18 @@
+package com.example.cabify.dto.ride;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutePairDto {
+
+    @NotBlank(message = "Source location is required")
+    private String source;
+
+    @NotBlank(message = "Destination is required")
+    private String destination;
+}
@@ -2,12 +2,26 @@ package com.example.cabify.dto.user;
 
 public class AuthResponseDto {
     private final String token;
+    // Exchange at /api/auth/refresh for a new pair before the access token runs out
+    private final String refreshToken;
+    // Seconds the access token is valid for
+    private final long expiresIn;
 
-    public AuthResponseDto(String token) {
+    public AuthResponseDto(String token, String refreshToken, long expiresIn) {
         this.token = token;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
     }
 
     public String getToken() {
         return token;
     }
-}
\ No newline at end of file
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+}
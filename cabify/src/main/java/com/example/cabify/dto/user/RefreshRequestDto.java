@@ -0,0 +1,10 @@
+package com.example.cabify.dto.user;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshRequestDto {
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+}
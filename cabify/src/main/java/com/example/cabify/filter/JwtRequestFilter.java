@@ -2,13 +2,16 @@ package com.example.cabify.filter;
 
 import com.example.cabify.service.CustomUserDetailsService;
 import com.example.cabify.service.CustomDriverDetailsService;
-import com.example.cabify.util.JwtUtil;
+import com.example.cabify.service.TokenDenyList;
+import com.example.cabify.service.VerifiedTokenCache;
+import com.example.cabify.util.JwtPrincipal;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -16,6 +19,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
@@ -27,7 +31,16 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     private CustomDriverDetailsService driverDetailsService; // 🚀 Injecting your new Driver service
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenDenyList tokenDenyList;
+
+    // Async endpoints (batched booking) are dispatched a second time when their result is ready; authenticate that too
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -42,7 +55,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         final String authorizationHeader = request.getHeader("Authorization");
         final String requestURI = request.getRequestURI(); // 🚀 Capture the URL path
 
-        String username = null;
+        JwtPrincipal principal = null;
         String jwt = null;
 
         try {
@@ -50,17 +63,32 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                 // CHANGE 2: Add .trim() to strip whitespace
                 jwt = authorizationHeader.substring(7).trim();
 
-                // CHANGE 3: Structural validation to prevent parser exceptions
-                if (jwt.equals("null") || jwt.equals("undefined") || jwt.split("\\.").length != 3) {
+                // CHANGE 3: Placeholders some clients send when they have no token; anything else malformed is
+                // rejected by the parser below
+                if (jwt.equals("null") || jwt.equals("undefined")) {
                     logger.warn("Rejected malformed JWT string from client: " + jwt);
                     chain.doFilter(request, response);
                     return; // Halt JWT processing and pass to the next filter
                 }
 
-                username = jwtUtil.extractUsername(jwt);
+                // One parse: signature, expiry and claims together, skipped when this token was seen before
+                principal = verifiedTokenCache.validate(jwt);
             }
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (principal != null && principal.isSelfContained()
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Id and role come from the verified token, so no database lookup; only a logout can reject it now
+                if (tokenDenyList.isRevoked(principal)) {
+                    logger.warn("Rejected revoked token for " + principal.role() + " " + principal.id());
+                } else {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(principal,
+                            null, List.of(new SimpleGrantedAuthority("ROLE_" + principal.role().name())));
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
+            } else if (principal != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Tokens issued before they carried an id and role: look the account up, as before, until they expire
+                String username = principal.subject();
 
                 UserDetails userDetails;
 
@@ -77,7 +105,8 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                     userDetails = this.userDetailsService.loadUserByUsername(username);
                 }
 
-                if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
+                // The token itself was verified above; this only checks it names the account that was found
+                if (userDetails.getUsername().equals(username)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
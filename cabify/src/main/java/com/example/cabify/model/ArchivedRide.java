@@ -0,0 +1,120 @@
+package com.example.cabify.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cold tier of the ride table. A finished ride that is old enough gets moved here by the archiver together with its
+ * payment and rating, flattened into one row, so the live ride/payment/rating tables only hold recent and
+ * in-flight rides. Keeps the original ride id. The user and driver details are the ones at archive time.
+ */
+@Entity
+@Table(name = "ride_archive", indexes = {
+        @Index(name = "idx_archive_user_start", columnList = "userId, startTime, id"),
+        @Index(name = "idx_archive_driver_start", columnList = "driverId, startTime, id"),
+        @Index(name = "idx_archive_user_updated", columnList = "userId, updatedAt, id"),
+        @Index(name = "idx_archive_driver_updated", columnList = "driverId, updatedAt, id")
+})
+@Data
+@NoArgsConstructor
+public class ArchivedRide implements Persistable<Long> {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+    private String userName;
+
+    @Column(nullable = false)
+    private Long driverId;
+    private String driverName;
+    private String vehicleModel;
+    private String vehiclePlate;
+
+    private String source;
+    private String destination;
+    private Double fare;
+    @Enumerated(EnumType.STRING)
+    private RideStatus status;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private LocalDateTime updatedAt;
+
+    // Payment, if the ride had one
+    private Long paymentId;
+    private Double paymentAmount;
+    @Enumerated(EnumType.STRING)
+    private PaymentMethod paymentMethod;
+    @Enumerated(EnumType.STRING)
+    private PaymentStatus paymentStatus;
+    private LocalDateTime paymentTimestamp;
+
+    // Rating, if the passenger left one
+    private Long ratingId;
+    private Integer ratingScore;
+    private String ratingComments;
+    private LocalDateTime ratingCreatedAt;
+
+    private LocalDateTime archivedAt;
+
+    // The id is the original ride's, so Spring Data can't tell a new row from an id; without this every save
+    // would first select the row to merge into
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean fresh = true;
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        fresh = false;
+    }
+
+    public static ArchivedRide of(Ride ride, Rating rating, LocalDateTime archivedAt) {
+        ArchivedRide archived = new ArchivedRide();
+        archived.setId(ride.getId());
+        archived.setUserId(ride.getUser().getUserId());
+        archived.setUserName(ride.getUser().getName());
+        archived.setDriverId(ride.getDriver().getDriverId());
+        archived.setDriverName(ride.getDriver().getName());
+        archived.setVehicleModel(ride.getDriver().getVehicleModel());
+        archived.setVehiclePlate(ride.getDriver().getVehiclePlate());
+        archived.setSource(ride.getSource());
+        archived.setDestination(ride.getDestination());
+        archived.setFare(ride.getFare());
+        archived.setStatus(ride.getStatus());
+        archived.setStartTime(ride.getStartTime());
+        archived.setEndTime(ride.getEndTime());
+        archived.setUpdatedAt(ride.getUpdatedAt());
+
+        Payment payment = ride.getPayment();
+        if (payment != null) {
+            archived.setPaymentId(payment.getPaymentId());
+            archived.setPaymentAmount(payment.getAmount());
+            archived.setPaymentMethod(payment.getPaymentMethod());
+            archived.setPaymentStatus(payment.getStatus());
+            archived.setPaymentTimestamp(payment.getTimestamp());
+        }
+        if (rating != null) {
+            archived.setRatingId(rating.getRatingId());
+            archived.setRatingScore(rating.getScore());
+            archived.setRatingComments(rating.getComments());
+            archived.setRatingCreatedAt(rating.getCreatedAt());
+        }
+        archived.setArchivedAt(archivedAt);
+        return archived;
+    }
+}
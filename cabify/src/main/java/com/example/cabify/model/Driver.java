@@ -35,4 +35,8 @@ public class Driver {
 
     @Enumerated(EnumType.STRING)
     private DriverStatus status = DriverStatus.AVAILABLE; // Default status
+
+    // Last known position, used to dispatch the nearest cab. Null until the driver app reports one.
+    private Double latitude;
+    private Double longitude;
 }
\ No newline at end of file
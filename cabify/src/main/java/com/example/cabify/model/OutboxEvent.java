@@ -0,0 +1,60 @@
+package com.example.cabify.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A ride or payment event waiting to be published, written in the same transaction as the change it describes.
+ * OutboxRelay deletes the row once the event has been handed to the sink, or parks it after too many failures.
+ */
+@Entity
+@Table(name = "outbox_event")
+@Data
+@NoArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    // Unlike rides, outbox ids come from AUTO_INCREMENT on purpose: the id is taken at insert time, so a later
+    // transaction on the same ride always gets a higher id, and the relay's id order is the ride's event order.
+    // Pooled blocks would hand each app instance its own range and break that.
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long rideId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OutboxEventType type;
+
+    // RideEventPayload as JSON
+    @Column(nullable = false, length = 1000)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Failed deliveries so far, and why the last one failed
+    private int attempts;
+
+    @Column(length = 500)
+    private String lastError;
+
+    // Set once the event has failed cabify.outbox.relay.max-attempts times; the relay skips parked rows, which stay
+    // in the table for someone to inspect and requeue (clear parkedAt) or delete
+    private LocalDateTime parkedAt;
+
+    public OutboxEvent(Long rideId, OutboxEventType type, String payload) {
+        this.rideId = rideId;
+        this.type = type;
+        this.payload = payload;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
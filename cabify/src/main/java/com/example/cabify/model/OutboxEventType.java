@@ -0,0 +1,7 @@
+package com.example.cabify.model;
+
+public enum OutboxEventType {
+    RIDE_BOOKED,     // Driver assigned, fare fixed
+    RIDE_ENDED,      // Ride finished (endRide also records its payment)
+    PAYMENT_RECORDED // A payment row was written for the ride
+}
@@ -0,0 +1,63 @@
+package com.example.cabify.model;
+
+import com.example.cabify.util.JwtPrincipal;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One refresh token. Only its SHA-256 is stored; the token itself exists on the client alone.
+ *
+ * Every login starts a family, and each refresh marks the presented token used and adds its successor to the same
+ * family. A used token coming back means it was copied, so the whole family is revoked.
+ */
+@Entity
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "idx_refresh_token_hash", columnList = "tokenHash", unique = true),
+        @Index(name = "idx_refresh_token_family", columnList = "family"),
+        @Index(name = "idx_refresh_token_expires", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_token_seq")
+    @SequenceGenerator(name = "refresh_token_seq", allocationSize = 50)
+    private Long id;
+
+    // Hex SHA-256 of the token
+    @Column(nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false, length = 36)
+    private String family;
+
+    // Who the access tokens it buys are for
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false)
+    private Long principalId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private JwtPrincipal.Role role;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime createdAt;
+
+    // Set when it is exchanged for a new pair; a token is good for one refresh only
+    private LocalDateTime usedAt;
+
+    private LocalDateTime revokedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
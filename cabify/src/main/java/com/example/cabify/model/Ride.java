@@ -3,13 +3,24 @@ package com.example.cabify.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Data
+@Table(indexes = {
+        // Keysets of the paged history and the change feed, per rider and per driver
+        @Index(name = "idx_ride_user_start", columnList = "user_id, startTime, id"),
+        @Index(name = "idx_ride_driver_start", columnList = "driver_id, startTime, id"),
+        @Index(name = "idx_ride_user_updated", columnList = "user_id, updatedAt, id"),
+        @Index(name = "idx_ride_driver_updated", columnList = "driver_id, updatedAt, id")
+})
 public class Ride {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Ids come from a pooled sequence (a table on MySQL), 50 at a time, so inserts can wait for the flush and be
+    // batched instead of running one by one to learn the generated key
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ride_seq")
+    @SequenceGenerator(name = "ride_seq", allocationSize = 50)
     private Long id;
 
     // LINK 1: The User who booked the ride
@@ -36,4 +47,14 @@ public class Ride {
 
     private LocalDateTime startTime;
     private LocalDateTime endTime;
+
+    // Bumped on every insert/update so polling clients can ask for "rides changed since"
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void touch() {
+        // Microseconds is what the column keeps, so cursors built from it round-trip exactly
+        this.updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
\ No newline at end of file
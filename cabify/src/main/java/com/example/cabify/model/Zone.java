@@ -0,0 +1,89 @@
+package com.example.cabify.model;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dispatch zones of the city. Each zone owns a fixed set of pickup locations (with their coordinates) and has
+ * its own dispatcher and its own pool of drivers.
+ *
+ * Work-stealing rule: a zone only borrows drivers when it has none available itself, and then tries its
+ * neighbours strictly in the order listed below, taking the driver nearest to the pickup in the first
+ * neighbour that has one.
+ */
+public enum Zone {
+
+    CENTRAL_NORTH, // Anna Nagar, T Nagar, Marina
+    CENTRAL_SOUTH, // Adyar, Guindy, Velachery
+    WEST,          // Tambaram, Medavakkam
+    OMR;           // The OMR hub and its locals
+
+    private static final Map<String, Zone> ZONE_BY_LOCATION = new HashMap<>();
+    private static final Map<String, double[]> POINT_BY_LOCATION = new LinkedHashMap<>();
+    private static final Map<Zone, List<Zone>> NEIGHBOURS = new HashMap<>();
+
+    static {
+        // (lat, lon) of every pickup location
+        locate("AnnaNagar", CENTRAL_NORTH, 13.0850, 80.2101);
+        locate("TNagar", CENTRAL_NORTH, 13.0418, 80.2341);
+        locate("Marina", CENTRAL_NORTH, 13.0500, 80.2824);
+
+        locate("Adyar", CENTRAL_SOUTH, 13.0012, 80.2565);
+        locate("Guindy", CENTRAL_SOUTH, 13.0067, 80.2206);
+        locate("Velachery", CENTRAL_SOUTH, 12.9815, 80.2180);
+
+        locate("Tambaram", WEST, 12.9249, 80.1000);
+        locate("Medavakkam", WEST, 12.9200, 80.1920);
+
+        locate("Sholinganallur", OMR, 12.9010, 80.2279);
+        locate("Perungudi", OMR, 12.9654, 80.2461);
+        locate("Thoraipakkam", OMR, 12.9390, 80.2330);
+        locate("Navalur", OMR, 12.8459, 80.2265);
+        locate("Siruseri", OMR, 12.8250, 80.2180);
+        locate("Kelambakkam", OMR, 12.7870, 80.2200);
+
+        // Stealing order, closest neighbour first. Zones left out are too far away to be worth the pickup.
+        NEIGHBOURS.put(CENTRAL_NORTH, List.of(CENTRAL_SOUTH, WEST));
+        NEIGHBOURS.put(CENTRAL_SOUTH, List.of(CENTRAL_NORTH, OMR, WEST));
+        NEIGHBOURS.put(WEST, List.of(CENTRAL_SOUTH, OMR, CENTRAL_NORTH));
+        NEIGHBOURS.put(OMR, List.of(CENTRAL_SOUTH, WEST));
+    }
+
+    private static void locate(String location, Zone zone, double latitude, double longitude) {
+        ZONE_BY_LOCATION.put(location, zone);
+        POINT_BY_LOCATION.put(location, new double[]{latitude, longitude});
+    }
+
+    public List<Zone> neighbours() {
+        return NEIGHBOURS.get(this);
+    }
+
+    // Zone of a canonical location name, or null if the location is unknown
+    public static Zone of(String location) {
+        return ZONE_BY_LOCATION.get(location);
+    }
+
+    // {latitude, longitude} of a canonical location name, or null if the location is unknown
+    public static double[] pointOf(String location) {
+        double[] point = POINT_BY_LOCATION.get(location);
+        return point != null ? point.clone() : null;
+    }
+
+    // Zone of the pickup location closest to the given point; used to place drivers
+    public static Zone nearestTo(double latitude, double longitude) {
+        Zone nearest = null;
+        double best = Double.MAX_VALUE;
+        for (Map.Entry<String, double[]> entry : POINT_BY_LOCATION.entrySet()) {
+            double dLat = entry.getValue()[0] - latitude;
+            double dLon = (entry.getValue()[1] - longitude) * Math.cos(Math.toRadians(latitude));
+            double distance = dLat * dLat + dLon * dLon;
+            if (distance < best) {
+                best = distance;
+                nearest = ZONE_BY_LOCATION.get(entry.getKey());
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.cabify.repository;
+
+import com.example.cabify.dto.ride.RideCursor;
+import com.example.cabify.dto.ride.RideResponseDto;
+import com.example.cabify.model.ArchivedRide;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Same history queries as RideRepository, against the archive tier; the service merges the two
+@Repository
+public interface ArchivedRideRepository extends JpaRepository<ArchivedRide, Long> {
+
+    String HISTORY_SELECT = "SELECT new com.example.cabify.dto.ride.RideResponseDto(a.id, a.userName, a.driverName, "
+            + "a.vehicleModel, a.vehiclePlate, a.source, a.destination, a.status, round(a.fare, 2), a.startTime, a.updatedAt) "
+            + "FROM ArchivedRide a ";
+    String NEWEST_FIRST = " ORDER BY a.startTime DESC, a.id DESC";
+    String BEFORE_CURSOR = " AND (a.startTime < :startTime OR (a.startTime = :startTime AND a.id < :id))";
+    String CHANGED_AFTER = " AND (a.updatedAt > :updatedAt OR (a.updatedAt = :updatedAt AND a.id > :id))"
+            + " AND a.updatedAt <= :upTo ORDER BY a.updatedAt, a.id";
+    String LATEST_CHANGE = "SELECT new com.example.cabify.dto.ride.RideCursor(a.updatedAt, a.id) FROM ArchivedRide a ";
+
+    @Query(HISTORY_SELECT + "WHERE a.userId = :userId ORDER BY a.id")
+    List<RideResponseDto> findHistoryByUserId(@Param("userId") Long userId);
+
+    @Query(HISTORY_SELECT + "WHERE a.driverId = :driverId ORDER BY a.id")
+    List<RideResponseDto> findHistoryByDriverId(@Param("driverId") Long driverId);
+
+    @Query(HISTORY_SELECT + "WHERE a.userId = :userId" + NEWEST_FIRST)
+    List<RideResponseDto> findHistoryPageByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query(HISTORY_SELECT + "WHERE a.userId = :userId" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<RideResponseDto> findHistoryPageByUserIdBefore(@Param("userId") Long userId,
+            @Param("startTime") LocalDateTime startTime, @Param("id") Long id, Limit limit);
+
+    @Query(HISTORY_SELECT + "WHERE a.userId = :userId" + CHANGED_AFTER)
+    List<RideResponseDto> findChangesByUserIdAfter(@Param("userId") Long userId,
+            @Param("updatedAt") LocalDateTime updatedAt, @Param("id") Long id, @Param("upTo") LocalDateTime upTo,
+            Limit limit);
+
+    @Query(LATEST_CHANGE + "WHERE a.userId = :userId AND a.updatedAt <= :upTo ORDER BY a.updatedAt DESC, a.id DESC")
+    List<RideCursor> findLatestChangeByUserId(@Param("userId") Long userId, @Param("upTo") LocalDateTime upTo,
+            Limit limit);
+
+    @Query(HISTORY_SELECT + "WHERE a.driverId = :driverId" + NEWEST_FIRST)
+    List<RideResponseDto> findHistoryPageByDriverId(@Param("driverId") Long driverId, Limit limit);
+
+    @Query(HISTORY_SELECT + "WHERE a.driverId = :driverId" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<RideResponseDto> findHistoryPageByDriverIdBefore(@Param("driverId") Long driverId,
+            @Param("startTime") LocalDateTime startTime, @Param("id") Long id, Limit limit);
+
+    @Query(HISTORY_SELECT + "WHERE a.driverId = :driverId" + CHANGED_AFTER)
+    List<RideResponseDto> findChangesByDriverIdAfter(@Param("driverId") Long driverId,
+            @Param("updatedAt") LocalDateTime updatedAt, @Param("id") Long id, @Param("upTo") LocalDateTime upTo,
+            Limit limit);
+
+    @Query(LATEST_CHANGE + "WHERE a.driverId = :driverId AND a.updatedAt <= :upTo ORDER BY a.updatedAt DESC, a.id DESC")
+    List<RideCursor> findLatestChangeByDriverId(@Param("driverId") Long driverId, @Param("upTo") LocalDateTime upTo,
+            Limit limit);
+
+    // Archived rides the passenger rated, for their ratings list
+    List<ArchivedRide> findByUserIdAndRatingIdIsNotNull(Long userId);
+
+    // Archived rides that left the driver a rating, for the driver's ratings and average
+    List<ArchivedRide> findByDriverIdAndRatingIdIsNotNull(Long driverId);
+}
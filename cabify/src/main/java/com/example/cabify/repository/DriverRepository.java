@@ -3,6 +3,9 @@ package com.example.cabify.repository;
 import com.example.cabify.model.Driver;
 import com.example.cabify.model.DriverStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -22,4 +25,11 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
 
     Optional<Driver> findFirstByStatus(DriverStatus available);
 
-    Optional<Driver> findByEmail(String email);}
\ No newline at end of file
+    Optional<Driver> findByEmail(String email);
+
+    // Compare-and-set claim: only flips the row if it is still AVAILABLE, returns the number of rows changed (0 or 1)
+    @Modifying
+    @Query("UPDATE Driver d SET d.status = com.example.cabify.model.DriverStatus.BUSY " +
+            "WHERE d.driverId = :driverId AND d.status = com.example.cabify.model.DriverStatus.AVAILABLE")
+    int claimIfAvailable(@Param("driverId") Long driverId);
+}
\ No newline at end of file
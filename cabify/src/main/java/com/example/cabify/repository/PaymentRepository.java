@@ -3,12 +3,21 @@ package com.example.cabify.repository;
 import com.example.cabify.model.Payment;
 import com.example.cabify.model.Ride;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     // We need this to ensure a ride isn't paid for twice, and to fetch the receipt.
     Optional<Payment> findByRide(Ride ride);
-}
\ No newline at end of file
+
+    // Payments of the rides being archived
+    @Modifying
+    @Query("DELETE FROM Payment p WHERE p.ride.id IN :rideIds")
+    int deleteByRideIdIn(@Param("rideIds") Collection<Long> rideIds);
+}
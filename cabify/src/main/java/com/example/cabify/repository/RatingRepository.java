@@ -2,7 +2,12 @@ package com.example.cabify.repository;
 
 import com.example.cabify.model.Rating;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,4 +21,11 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
 
     // 3. Find all ratings received BY a specific driver (Driver History)
     List<Rating> findByDriverId(Long driverId);
-}
\ No newline at end of file
+
+    // 4. Ratings of the rides being archived
+    List<Rating> findByRideIdIn(Collection<Long> rideIds);
+
+    @Modifying
+    @Query("DELETE FROM Rating r WHERE r.ride.id IN :rideIds")
+    int deleteByRideIdIn(@Param("rideIds") Collection<Long> rideIds);
+}
@@ -1,23 +1,89 @@
 package com.example.cabify.repository;
 
-import com.example.cabify.model.Driver;
+import com.example.cabify.dto.ride.RideCursor;
+import com.example.cabify.dto.ride.RideResponseDto;
 import com.example.cabify.model.Ride;
 import com.example.cabify.model.RideStatus;
 import com.example.cabify.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RideRepository extends JpaRepository<Ride, Long> {
 
-    // Custom method: "Find all rides where the User column matches this user"
-    List<Ride> findByUser(User user);
     boolean existsByUserAndStatus(User user, RideStatus status);
     @Query("SELECT r FROM Ride r WHERE r.driver.driverId = :driverId AND r.status = com.example.cabify.model.RideStatus.BOOKED")
     Optional<Ride> findActiveRideByDriver(@Param("driverId") Long driverId);
-    List<Ride> findByDriver(Driver driver);
-}
\ No newline at end of file
+
+    // History screens: one joined select straight into the DTO, no Ride/User/Driver/Payment entities loaded
+    String HISTORY_SELECT = "SELECT new com.example.cabify.dto.ride.RideResponseDto(r.id, u.name, d.name, "
+            + "d.vehicleModel, d.vehiclePlate, r.source, r.destination, r.status, round(r.fare, 2), r.startTime, "
+            + "r.updatedAt) FROM Ride r JOIN r.user u JOIN r.driver d ";
+    // Newest first; (startTime, id) is the keyset, so the next page seeks past the last row it saw
+    String NEWEST_FIRST = " ORDER BY r.startTime DESC, r.id DESC";
+    String BEFORE_CURSOR = " AND (r.startTime < :startTime OR (r.startTime = :startTime AND r.id < :id))";
+    // Change feed: oldest change first, keyed on (updatedAt, id). Rows newer than :upTo are left for the next
+    // poll, so a transaction that commits late with an older timestamp can't slip behind a cursor
+    String CHANGED_AFTER = " AND (r.updatedAt > :updatedAt OR (r.updatedAt = :updatedAt AND r.id > :id))"
+            + " AND r.updatedAt <= :upTo ORDER BY r.updatedAt, r.id";
+    String LATEST_CHANGE = "SELECT new com.example.cabify.dto.ride.RideCursor(r.updatedAt, r.id) FROM Ride r ";
+
+    @Query(HISTORY_SELECT + "WHERE u.userId = :userId ORDER BY r.id")
+    List<RideResponseDto> findHistoryByUserId(@Param("userId") Long userId);
+
+    @Query(HISTORY_SELECT + "WHERE d.driverId = :driverId ORDER BY r.id")
+    List<RideResponseDto> findHistoryByDriverId(@Param("driverId") Long driverId);
+
+    @Query(HISTORY_SELECT + "WHERE u.userId = :userId" + NEWEST_FIRST)
+    List<RideResponseDto> findHistoryPageByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query(HISTORY_SELECT + "WHERE u.userId = :userId" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<RideResponseDto> findHistoryPageByUserIdBefore(@Param("userId") Long userId,
+            @Param("startTime") LocalDateTime startTime, @Param("id") Long id, Limit limit);
+
+    @Query(HISTORY_SELECT + "WHERE u.userId = :userId" + CHANGED_AFTER)
+    List<RideResponseDto> findChangesByUserIdAfter(@Param("userId") Long userId,
+            @Param("updatedAt") LocalDateTime updatedAt, @Param("id") Long id, @Param("upTo") LocalDateTime upTo,
+            Limit limit);
+
+    @Query(LATEST_CHANGE + "WHERE r.user.userId = :userId AND r.updatedAt <= :upTo ORDER BY r.updatedAt DESC, r.id DESC")
+    List<RideCursor> findLatestChangeByUserId(@Param("userId") Long userId, @Param("upTo") LocalDateTime upTo,
+            Limit limit);
+
+    @Query(HISTORY_SELECT + "WHERE d.driverId = :driverId" + NEWEST_FIRST)
+    List<RideResponseDto> findHistoryPageByDriverId(@Param("driverId") Long driverId, Limit limit);
+
+    @Query(HISTORY_SELECT + "WHERE d.driverId = :driverId" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<RideResponseDto> findHistoryPageByDriverIdBefore(@Param("driverId") Long driverId,
+            @Param("startTime") LocalDateTime startTime, @Param("id") Long id, Limit limit);
+
+    @Query(HISTORY_SELECT + "WHERE d.driverId = :driverId" + CHANGED_AFTER)
+    List<RideResponseDto> findChangesByDriverIdAfter(@Param("driverId") Long driverId,
+            @Param("updatedAt") LocalDateTime updatedAt, @Param("id") Long id, @Param("upTo") LocalDateTime upTo,
+            Limit limit);
+
+    @Query(LATEST_CHANGE + "WHERE r.driver.driverId = :driverId AND r.updatedAt <= :upTo ORDER BY r.updatedAt DESC, r.id DESC")
+    List<RideCursor> findLatestChangeByDriverId(@Param("driverId") Long driverId, @Param("upTo") LocalDateTime upTo,
+            Limit limit);
+
+    // Archival: finished rides whose last activity is before the cutoff, oldest id first
+    @Query("SELECT r.id FROM Ride r WHERE r.status IN (com.example.cabify.model.RideStatus.PAID, "
+            + "com.example.cabify.model.RideStatus.CANCELLED) AND COALESCE(r.endTime, r.startTime) < :cutoff ORDER BY r.id")
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Query("SELECT r FROM Ride r JOIN FETCH r.user JOIN FETCH r.driver LEFT JOIN FETCH r.payment WHERE r.id IN :ids")
+    List<Ride> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Ride r WHERE r.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,134 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.user.AuthResponseDto;
+import com.example.cabify.model.RefreshToken;
+import com.example.cabify.repository.RefreshTokenRepository;
+import com.example.cabify.util.JwtPrincipal;
+import com.example.cabify.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues short-lived access tokens together with rotating refresh tokens, so clients renew with one indexed lookup
+ * and no BCrypt instead of logging in again.
+ *
+ * A refresh token is 256 random bits; only its SHA-256 is stored (a fast hash is enough for a value that can't be
+ * guessed). Each one can be exchanged once: refreshing marks it used and hands back a new pair. Presenting a used
+ * token revokes its whole family, since either the client or someone who copied it is replaying an old token.
+ * A client that retries a refresh whose response it lost is logged out the same way.
+ */
+@Service
+@Slf4j
+public class AuthTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private IdentityCache identityCache;
+
+    @Value("${jwt.refresh-token-days:30}")
+    private int refreshTokenDays;
+
+    // Starts a new refresh token family after a password login
+    @Transactional
+    public AuthResponseDto login(String subject, Long principalId, JwtPrincipal.Role role) {
+        return issue(subject, principalId, role, UUID.randomUUID().toString());
+    }
+
+    // Exchanges a refresh token for a new access token and refresh token; 401 if it is unknown, expired or spent
+    @Transactional(noRollbackFor = ResponseStatusException.class)
+    public AuthResponseDto refresh(String rawRefreshToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawRefreshToken))
+                .orElseThrow(() -> unauthorized("Invalid refresh token"));
+        LocalDateTime now = LocalDateTime.now();
+        if (token.getRevokedAt() != null) {
+            throw unauthorized("Refresh token has been revoked");
+        }
+        if (token.getExpiresAt().isBefore(now)) {
+            throw unauthorized("Refresh token has expired, please log in again");
+        }
+        if (refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            // Already exchanged once: cut off every token descended from the same login
+            refreshTokenRepository.revokeFamily(token.getFamily(), now);
+            log.warn("Refresh token reuse for {} ID {}, revoked its family", token.getRole(), token.getPrincipalId());
+            throw unauthorized("Refresh token has already been used");
+        }
+        // Accounts removed since login can't renew (a cache lookup, not a query, in the usual case)
+        boolean exists = token.getRole() == JwtPrincipal.Role.DRIVER
+                ? identityCache.driver(token.getPrincipalId()).isPresent()
+                : identityCache.user(token.getPrincipalId()).isPresent();
+        if (!exists) {
+            refreshTokenRepository.revokeFamily(token.getFamily(), now);
+            throw unauthorized("Account no longer exists");
+        }
+        return issue(token.getSubject(), token.getPrincipalId(), token.getRole(), token.getFamily());
+    }
+
+    // Logout: the presented refresh token and everything rotated from the same login stop working
+    @Transactional
+    public void revoke(String rawRefreshToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawRefreshToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamily(), LocalDateTime.now()));
+    }
+
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 3_600_000)
+    @Transactional
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private AuthResponseDto issue(String subject, Long principalId, JwtPrincipal.Role role, String family) {
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        String rawRefreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(rawRefreshToken));
+        token.setFamily(family);
+        token.setSubject(subject);
+        token.setPrincipalId(principalId);
+        token.setRole(role);
+        token.setExpiresAt(LocalDateTime.now().plusDays(refreshTokenDays));
+        refreshTokenRepository.save(token);
+
+        return new AuthResponseDto(jwtUtil.generateToken(subject, principalId, role), rawRefreshToken,
+                jwtUtil.getAccessTokenMs() / 1000);
+    }
+
+    private static String hash(String rawRefreshToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawRefreshToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static ResponseStatusException unauthorized(String message) {
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, message);
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.ride.RideRequestDto;
+import com.example.cabify.dto.ride.RideResponseDto;
+import com.example.cabify.model.Zone;
+import com.example.cabify.util.AssignmentSolver;
+import com.example.cabify.util.GeoGridIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zone-sharded batched dispatch. Every {@link Zone} has its own bounded queue and a single dispatcher thread
+ * that owns matching for that zone, so bookings in different zones never wait on each other.
+ *
+ * A dispatcher collects requests for a short window after the first one arrives and matches the whole batch
+ * to the zone's drivers at once with a min-cost assignment on pickup distance, instead of each request
+ * greedily grabbing its nearest cab. Matched drivers are claimed in the availability index before the bookings
+ * are committed, so the commits can run in parallel. Riders left without a match fall back to the normal
+ * bookRide path, which borrows from neighbouring zones by the rule documented on {@link Zone}.
+ *
+ * This mode is opt-in (cabify.dispatch.batch.enabled, off by default). While it is off no queues or dispatcher
+ * threads exist and {@link #submit} calls bookRide directly, so bookings are matched one at a time on the request
+ * thread against the zone's grid in {@link DriverAvailabilityIndex}. Only the driver pools are sharded by zone
+ * then, not the dispatching.
+ */
+@Service
+@Slf4j
+public class BatchDispatchService {
+
+    // Candidates per rider pulled from the zone grid; the union of these forms the driver side of the matrix
+    private static final int CANDIDATES_PER_RIDER = 10;
+    // Pairs further apart than this are never matched
+    private static final double MAX_PICKUP_KM = 50.0;
+
+    @Autowired
+    private IRideService rideService;
+
+    @Autowired
+    private DriverAvailabilityIndex driverAvailabilityIndex;
+
+    @Value("${cabify.dispatch.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cabify.dispatch.batch.window-ms:200}")
+    private long windowMs;
+
+    @Value("${cabify.dispatch.batch.max-size:128}")
+    private int maxBatchSize;
+
+    @Value("${cabify.dispatch.batch.queue-capacity:1024}")
+    private int queueCapacity;
+
+    @Value("${cabify.dispatch.batch.commit-threads:8}")
+    private int commitThreads;
+
+    private final Map<Zone, ZoneDispatcher> dispatchers = new EnumMap<>(Zone.class);
+    private ExecutorService committer;
+
+    private record PendingBooking(RideRequestDto request, double[] pickup, CompletableFuture<RideResponseDto> result) {
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        committer = Executors.newFixedThreadPool(commitThreads, r -> new Thread(r, "batch-dispatch-commit"));
+        for (Zone zone : Zone.values()) {
+            ZoneDispatcher dispatcher = new ZoneDispatcher(zone);
+            dispatchers.put(zone, dispatcher);
+            dispatcher.thread.start();
+        }
+        log.info("Batched dispatch enabled: {} zones, window {} ms, max batch {}, queue capacity {}",
+                dispatchers.size(), windowMs, maxBatchSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void stop() {
+        dispatchers.values().forEach(dispatcher -> dispatcher.thread.interrupt());
+        if (committer != null) {
+            committer.shutdown();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a booking on its pickup zone's dispatcher. The future completes with the booked ride, or
+     * exceptionally with the same exceptions bookRide throws (503 if the zone's queue is full).
+     */
+    public CompletableFuture<RideResponseDto> submit(RideRequestDto request) {
+        if (!enabled) {
+            return CompletableFuture.supplyAsync(() -> rideService.bookRide(request), Runnable::run);
+        }
+        CompletableFuture<RideResponseDto> result = new CompletableFuture<>();
+        try {
+            double[] pickup = rideService.getPickupPoint(request.getSource());
+            // A pickup location is its own nearest location, so this is the location's zone
+            Zone zone = Zone.nearestTo(pickup[0], pickup[1]);
+            if (!dispatchers.get(zone).queue.offer(new PendingBooking(request, pickup, result))) {
+                log.warn("Dispatch queue for zone {} is full, rejecting booking for User ID {}", zone, request.getUserId());
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Too many bookings in this area right now. Please try again shortly.");
+            }
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    // Single writer for one zone: drains its own queue in windows and matches each batch
+    private final class ZoneDispatcher implements Runnable {
+
+        private final Zone zone;
+        private final BlockingQueue<PendingBooking> queue;
+        private final Thread thread;
+
+        private ZoneDispatcher(Zone zone) {
+            this.zone = zone;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, "dispatch-" + zone.name().toLowerCase());
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    // The window opens when the first booking arrives, so a quiet zone adds no delay beyond it
+                    List<PendingBooking> batch = new ArrayList<>();
+                    batch.add(queue.take());
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                    while (batch.size() < maxBatchSize) {
+                        PendingBooking next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    dispatch(zone, batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    log.error("Dispatch round for zone {} failed", zone, e);
+                }
+            }
+        }
+    }
+
+    private void dispatch(Zone zone, List<PendingBooking> riders) {
+        long started = System.nanoTime();
+        List<double[]> pickups = new ArrayList<>(riders.size());
+        riders.forEach(rider -> pickups.add(rider.pickup()));
+
+        Long[] drivers = match(zone, pickups);
+
+        // Commit the bookings in parallel; the matched drivers are already claimed
+        int matched = 0;
+        double totalPickupKm = 0;
+        for (int i = 0; i < riders.size(); i++) {
+            PendingBooking booking = riders.get(i);
+            Long driverId = drivers[i];
+            if (driverId != null) {
+                matched++;
+                GeoGridIndex.Point position = driverAvailabilityIndex.positionOf(driverId);
+                double[] pickup = booking.pickup();
+                totalPickupKm += GeoGridIndex.distanceKm(pickup[0], pickup[1], position.latitude(), position.longitude());
+            }
+            committer.execute(() -> complete(booking, driverId));
+        }
+
+        log.info("Zone {} dispatched batch of {} bookings: {} matched, avg pickup {} km, solved in {} ms",
+                zone, riders.size(), matched, matched == 0 ? 0 : Math.round(totalPickupKm / matched * 100.0) / 100.0,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Matches a batch of pickups in one zone to that zone's available drivers and claims the matched drivers in
+     * the availability index. Returns the claimed driver for each pickup, or null where none was matched.
+     */
+    Long[] match(Zone zone, List<double[]> pickups) {
+        // 1. Candidate drivers: the union of every rider's nearest available drivers in this zone
+        Map<Long, GeoGridIndex.Point> candidates = new LinkedHashMap<>();
+        for (double[] pickup : pickups) {
+            for (GeoGridIndex.Hit hit : driverAvailabilityIndex.nearestAvailable(zone, pickup[0], pickup[1], CANDIDATES_PER_RIDER)) {
+                candidates.computeIfAbsent(hit.id(), driverAvailabilityIndex::positionOf);
+            }
+        }
+        List<Long> driverIds = new ArrayList<>(candidates.keySet());
+
+        // 2. Min-cost assignment over pickup distance
+        double[][] cost = new double[pickups.size()][driverIds.size()];
+        for (int i = 0; i < pickups.size(); i++) {
+            double[] pickup = pickups.get(i);
+            for (int j = 0; j < driverIds.size(); j++) {
+                GeoGridIndex.Point position = candidates.get(driverIds.get(j));
+                cost[i][j] = GeoGridIndex.distanceKm(pickup[0], pickup[1], position.latitude(), position.longitude());
+            }
+        }
+        int[] assignment = AssignmentSolver.solve(cost);
+
+        // 3. Claim the matched drivers
+        Long[] claimed = new Long[pickups.size()];
+        for (int i = 0; i < pickups.size(); i++) {
+            int j = assignment[i];
+            if (j >= 0 && cost[i][j] <= MAX_PICKUP_KM && driverAvailabilityIndex.tryClaim(driverIds.get(j))) {
+                claimed[i] = driverIds.get(j);
+            }
+        }
+        return claimed;
+    }
+
+    private void complete(PendingBooking booking, Long driverId) {
+        try {
+            RideResponseDto ride = driverId != null
+                    ? rideService.bookRide(booking.request(), driverId)
+                    : rideService.bookRide(booking.request());
+            booking.result().complete(ride);
+        } catch (RuntimeException e) {
+            booking.result().completeExceptionally(e);
+        }
+    }
+}
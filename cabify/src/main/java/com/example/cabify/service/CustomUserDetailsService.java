@@ -1,33 +1,32 @@
 package com.example.cabify.service;
 
-import com.example.cabify.model.User;
-import com.example.cabify.repository.UserRepository;
+import com.example.cabify.util.JwtPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     @Autowired
-    private UserRepository userRepository;
+    private IdentityCache identityCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        // 1. Fetch the user from YOUR database
-        User user = userRepository.findByEmail(email)
+        // 1. Fetch the user (from the identity cache, so usually without touching the database)
+        IdentityCache.CachedUser user = identityCache.userByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        // 2. Return a Spring Security User object
-        // We pass an empty list for roles for now
+        // 2. Return a Spring Security User object, with the role SecurityConfig checks on rider endpoints
         return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                new ArrayList<>()
+                user.email(),
+                user.password(),
+                List.of(new SimpleGrantedAuthority("ROLE_" + JwtPrincipal.Role.RIDER.name()))
         );
     }
 }
\ No newline at end of file
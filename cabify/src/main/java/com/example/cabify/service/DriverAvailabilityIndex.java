@@ -0,0 +1,205 @@
+package com.example.cabify.service;
+
+import com.example.cabify.model.Driver;
+import com.example.cabify.model.DriverStatus;
+import com.example.cabify.model.Zone;
+import com.example.cabify.repository.DriverRepository;
+import com.example.cabify.util.GeoGridIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * In-memory view of which drivers are free and where they are, so booking can claim the nearest one
+ * without querying the drivers table.
+ *
+ * Every driver id maps to its current status. A claim is a compare-and-set of AVAILABLE -> BUSY on that map,
+ * so two concurrent bookings can never both win the same driver. AVAILABLE drivers with a known position sit
+ * in the uniform grid of their {@link Zone}, so dispatch in one zone never walks another zone's drivers unless
+ * it has to steal. The ones without a position wait in a plain queue and are only handed out when nobody
+ * located is free. Queue entries that went stale are skipped when they come up.
+ */
+@Component
+@Slf4j
+public class DriverAvailabilityIndex {
+
+    // ~1.1 km cells, and never look further than 50 km for a pickup
+    private static final double GRID_CELL_DEGREES = 0.01;
+    private static final double MAX_PICKUP_RADIUS_KM = 50.0;
+    // How many nearby candidates to try per lookup before asking the grid again
+    private static final int CLAIM_CANDIDATES = 8;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    private final Map<Long, DriverStatus> statuses = new ConcurrentHashMap<>();
+    private final Map<Long, GeoGridIndex.Point> positions = new ConcurrentHashMap<>();
+    private final Map<Zone, GeoGridIndex> grids = new EnumMap<>(Zone.class);
+    private final Queue<Long> unlocated = new ConcurrentLinkedQueue<>();
+
+    public DriverAvailabilityIndex() {
+        for (Zone zone : Zone.values()) {
+            grids.put(zone, new GeoGridIndex(GRID_CELL_DEGREES, MAX_PICKUP_RADIUS_KM));
+        }
+    }
+
+    // Built once the app is up, from whatever the drivers table says right now
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Driver> drivers = driverRepository.findAll();
+        statuses.keySet().forEach(this::removeFromGrid);
+        statuses.clear();
+        positions.clear();
+        unlocated.clear();
+        drivers.forEach(driver -> {
+            moveTo(driver.getDriverId(), driver.getLatitude(), driver.getLongitude());
+            update(driver.getDriverId(), driver.getStatus());
+        });
+        log.info("Driver availability index built: {} drivers, {} available", drivers.size(), availableCount());
+    }
+
+    /**
+     * Up to k AVAILABLE drivers in the given zone closest to the pickup, nearest first. Nothing is claimed.
+     */
+    public List<GeoGridIndex.Hit> nearestAvailable(Zone zone, double latitude, double longitude, int k) {
+        return grids.get(zone).nearest(latitude, longitude, k, this::isAvailable);
+    }
+
+    public Long claimNearest(double latitude, double longitude) {
+        return claimNearest(Zone.nearestTo(latitude, longitude), latitude, longitude);
+    }
+
+    /**
+     * Claims the available driver closest to a pickup in the given zone. Follows the zone's work-stealing rule
+     * when the zone is dry; drivers without a known position are only used after that. Returns null when
+     * nobody is free.
+     */
+    public Long claimNearest(Zone zone, double latitude, double longitude) {
+        Long driverId = claimNearestIn(zone, latitude, longitude);
+        for (Zone neighbour : zone.neighbours()) {
+            if (driverId != null) {
+                return driverId;
+            }
+            driverId = claimNearestIn(neighbour, latitude, longitude);
+            if (driverId != null) {
+                log.debug("Zone {} borrowed driver ID {} from {}", zone, driverId, neighbour);
+            }
+        }
+        while (driverId == null && (driverId = unlocated.poll()) != null) {
+            if (!tryClaim(driverId)) {
+                driverId = null;
+            }
+        }
+        return driverId;
+    }
+
+    private Long claimNearestIn(Zone zone, double latitude, double longitude) {
+        List<GeoGridIndex.Hit> hits;
+        while (!(hits = nearestAvailable(zone, latitude, longitude, CLAIM_CANDIDATES)).isEmpty()) {
+            for (GeoGridIndex.Hit hit : hits) {
+                if (tryClaim(hit.id())) {
+                    return hit.id();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Atomically flips one driver from AVAILABLE to BUSY. Only one caller can ever succeed per availability.
+     */
+    public boolean tryClaim(Long driverId) {
+        boolean[] claimed = new boolean[1];
+        statuses.computeIfPresent(driverId, (id, status) -> {
+            if (status != DriverStatus.AVAILABLE) {
+                return status;
+            }
+            removeFromGrid(id);
+            claimed[0] = true;
+            return DriverStatus.BUSY;
+        });
+        return claimed[0];
+    }
+
+    // Hands a claimed driver back, e.g. when the booking that claimed it failed
+    public void release(Long driverId) {
+        update(driverId, DriverStatus.AVAILABLE);
+    }
+
+    public void update(Long driverId, DriverStatus status) {
+        if (driverId == null || status == null) {
+            return;
+        }
+        // compute() serializes all changes for one driver, so the grids never disagree with the status
+        statuses.compute(driverId, (id, previous) -> {
+            if (status == DriverStatus.AVAILABLE) {
+                GeoGridIndex.Point position = positions.get(id);
+                if (position != null) {
+                    gridOf(position).put(id, position.latitude(), position.longitude());
+                } else if (previous != DriverStatus.AVAILABLE) {
+                    unlocated.offer(id);
+                }
+            } else {
+                removeFromGrid(id);
+            }
+            return status;
+        });
+    }
+
+    /**
+     * Records where a driver is. Available drivers move in (or between) the zone grids straight away.
+     */
+    public void moveTo(Long driverId, Double latitude, Double longitude) {
+        if (driverId == null || latitude == null || longitude == null) {
+            return;
+        }
+        GeoGridIndex.Point position = new GeoGridIndex.Point(latitude, longitude);
+        statuses.compute(driverId, (id, status) -> {
+            if (status == DriverStatus.AVAILABLE) {
+                removeFromGrid(id);
+                gridOf(position).put(id, latitude, longitude);
+            }
+            positions.put(id, position);
+            return status;
+        });
+    }
+
+    // Last known position, or null if the driver never reported one
+    public GeoGridIndex.Point positionOf(Long driverId) {
+        return positions.get(driverId);
+    }
+
+    public boolean isAvailable(long driverId) {
+        return statuses.get(driverId) == DriverStatus.AVAILABLE;
+    }
+
+    public long availableCount() {
+        return statuses.values().stream().filter(s -> s == DriverStatus.AVAILABLE).count();
+    }
+
+    // Located AVAILABLE drivers currently in the zone; O(1)
+    public int availableCount(Zone zone) {
+        return grids.get(zone).size();
+    }
+
+    private GeoGridIndex gridOf(GeoGridIndex.Point position) {
+        return grids.get(Zone.nearestTo(position.latitude(), position.longitude()));
+    }
+
+    // Callers hold the driver's compute() slot, so the stored position is the one the grid used
+    private void removeFromGrid(Long driverId) {
+        GeoGridIndex.Point position = positions.get(driverId);
+        if (position != null) {
+            gridOf(position).remove(driverId);
+        }
+    }
+}
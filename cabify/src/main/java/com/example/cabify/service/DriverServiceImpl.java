@@ -7,8 +7,8 @@ import com.example.cabify.model.DriverStatus;
 import com.example.cabify.repository.DriverRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -24,7 +24,13 @@ public class DriverServiceImpl implements IDriverService {
     private DriverRepository driverRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private DriverAvailabilityIndex driverAvailabilityIndex;
+
+    @Autowired
+    private IdentityCache identityCache;
 
     @Override
     public DriverDto registerDriver(DriverDto driverDto) {
@@ -88,7 +94,7 @@ public class DriverServiceImpl implements IDriverService {
         Driver driverEntity = new Driver();
         driverEntity.setName(name);
         driverEntity.setEmail(email);
-        driverEntity.setPassword(passwordEncoder.encode(password)); 
+        driverEntity.setPassword(passwordHashingService.encode(password)); 
         driverEntity.setPhone(phone);
         driverEntity.setLicenseNumber(license);
         
@@ -100,6 +106,8 @@ public class DriverServiceImpl implements IDriverService {
 
         // 6. Save Data
         Driver savedDriver = driverRepository.save(driverEntity);
+        identityCache.evictDriver(savedDriver.getDriverId(), savedDriver.getEmail());
+        driverAvailabilityIndex.update(savedDriver.getDriverId(), savedDriver.getStatus());
         log.info("Driver registered successfully. ID: {}", savedDriver.getDriverId());
         
         return mapToDto(savedDriver);
@@ -107,10 +115,13 @@ public class DriverServiceImpl implements IDriverService {
 
     @Override
     public DriverDto loginDriver(DriverLoginRequestDto loginRequest) {
-        Driver driver = driverRepository.findByEmail(loginRequest.getEmail().toLowerCase().trim())
-                .orElseThrow(() -> new NoSuchElementException("Invalid Email or Password"));
+        Driver driver = driverRepository.findByEmail(loginRequest.getEmail().toLowerCase().trim()).orElse(null);
+        if (driver == null) {
+            passwordHashingService.matchesUnknownAccount(loginRequest.getPassword());
+            throw new NoSuchElementException("Invalid Email or Password");
+        }
 
-        if (!passwordEncoder.matches(loginRequest.getPassword(), driver.getPassword())) {
+        if (!passwordHashingService.matches(loginRequest.getPassword(), driver.getPassword())) {
             throw new IllegalArgumentException("Invalid Email or Password");
         }
 
@@ -120,9 +131,11 @@ public class DriverServiceImpl implements IDriverService {
 
     @Override
     public DriverDto getDriverById(Long driverId) {
-        Driver driver = driverRepository.findById(driverId)
+        IdentityCache.CachedDriver driver = identityCache.driver(driverId)
                 .orElseThrow(() -> new NoSuchElementException("Driver not found with ID: " + driverId));
-        return mapToDto(driver);
+        return new DriverDto(driver.driverId(), driver.name(), driver.email(), driver.password(), driver.phone(),
+                driver.licenseNumber(), driver.vehicleModel(), driver.vehiclePlate(), driver.status(),
+                driver.latitude(), driver.longitude());
     }
 
     @Override
@@ -137,10 +150,30 @@ public class DriverServiceImpl implements IDriverService {
             throw new IllegalArgumentException("Invalid status. Use: AVAILABLE, BUSY, or OFFLINE");
         }
 
-        return mapToDto(driverRepository.save(driver));
+        Driver savedDriver = driverRepository.save(driver);
+        identityCache.evictDriver(savedDriver.getDriverId());
+        driverAvailabilityIndex.update(savedDriver.getDriverId(), savedDriver.getStatus());
+        return mapToDto(savedDriver);
+    }
+
+    @Override
+    public DriverDto updateDriverLocation(Long driverId, double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Invalid coordinates");
+        }
+        Driver driver = driverRepository.findById(driverId)
+                .orElseThrow(() -> new NoSuchElementException("Driver not found with ID: " + driverId));
+
+        driver.setLatitude(latitude);
+        driver.setLongitude(longitude);
+        Driver savedDriver = driverRepository.save(driver);
+        identityCache.evictDriver(savedDriver.getDriverId());
+        driverAvailabilityIndex.moveTo(savedDriver.getDriverId(), latitude, longitude);
+        return mapToDto(savedDriver);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<DriverDto> getAvailableDrivers() {
         List<Driver> drivers = driverRepository.findByStatus(DriverStatus.AVAILABLE);
         if (drivers.isEmpty()) {
@@ -150,7 +183,7 @@ public class DriverServiceImpl implements IDriverService {
     }
 
     // 🚀 THE FIX: Helper method updated for split fields
-    private DriverDto mapToDto(Driver driver) {
+    DriverDto mapToDto(Driver driver) {
         return new DriverDto(
                 driver.getDriverId(),
                 driver.getName(),
@@ -160,7 +193,9 @@ public class DriverServiceImpl implements IDriverService {
                 driver.getLicenseNumber(),
                 driver.getVehicleModel(), 
                 driver.getVehiclePlate(),
-                driver.getStatus()
+                driver.getStatus(),
+                driver.getLatitude(),
+                driver.getLongitude()
         );
     }
 }
\ No newline at end of file
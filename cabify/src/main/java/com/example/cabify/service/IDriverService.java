@@ -15,6 +15,8 @@ public interface IDriverService {
 
     DriverDto updateDriverStatus(Long driverId, String status);
 
+    DriverDto updateDriverLocation(Long driverId, double latitude, double longitude);
+
     List<DriverDto> getAvailableDrivers();
 
     DriverDto loginDriver(DriverLoginRequestDto loginRequest);}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.event.RideEventMessage;
+
+/**
+ * Where OutboxRelay hands events. Returning normally means the event is delivered and its outbox row can go;
+ * throwing leaves the row for the next pass. InProcessEventSink is the default; a broker publisher or a test
+ * stand-in can take its place.
+ */
+public interface IEventSink {
+    void publish(RideEventMessage message);
+}
@@ -7,4 +7,7 @@ import java.util.List;
 public interface IRatingService {
     RatingResponseDto submitRating(RatingRequestDto ratingDto);
     List<RatingResponseDto> getRatingsForUser(Long userId);
+    List<RatingResponseDto> getRatingsForDriver(Long driverId);
+    // Average score over live and archived ratings; null when the driver has none yet
+    Double getAverageRatingForDriver(Long driverId);
 }
\ No newline at end of file
@@ -1,24 +1,48 @@
 package com.example.cabify.service;
 
+import com.example.cabify.dto.ride.FareQuoteDto;
+import com.example.cabify.dto.ride.RideHistoryPageDto;
 import com.example.cabify.dto.ride.RideRequestDto;
 import com.example.cabify.dto.ride.RideResponseDto;
+import com.example.cabify.dto.ride.RoutePairDto;
 import java.util.List;
 
 public interface IRideService {
 
     RideResponseDto bookRide(RideRequestDto request);
 
+    // Books with a driver the batch dispatcher already claimed in the availability index
+    RideResponseDto bookRide(RideRequestDto request, Long preclaimedDriverId);
+
     RideResponseDto endRide(Long rideId);
 
     List<RideResponseDto> getMyRides(Long userId);
 
     List<String> getAvailableLocations();
 
+    // {latitude, longitude} of a known location; throws IllegalArgumentException for unknown ones
+    double[] getPickupPoint(String location);
+
     double calculateFare(String source, String destination);
 
+    // Fare between two {latitude, longitude} points over the road graph, for pickups outside the location list.
+    // Throws IllegalArgumentException when no graph is loaded or no road connects the points.
+    double calculateFare(double[] source, double[] destination);
+
+    // Prices every route; routes that can't be priced come back with an error instead of failing the batch
+    List<FareQuoteDto> estimateFares(List<RoutePairDto> routes);
+
     List<RideResponseDto> getMyRides(String email);
 
     public RideResponseDto getActiveRideForDriver(Long driverId);
 
     List<RideResponseDto> getDriverRideHistory(Long driverId);
+
+    // Keyset-paged history, newest first. With since (a changesCursor from an earlier response) it instead returns
+    // only the rides added or changed after that point, oldest change first.
+    RideHistoryPageDto getMyRidesPage(Long userId, String cursor, String since, int size);
+
+    RideHistoryPageDto getMyRidesPage(String email, String cursor, String since, int size);
+
+    RideHistoryPageDto getDriverRideHistoryPage(Long driverId, String cursor, String since, int size);
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.example.cabify.service;
+
+import com.example.cabify.config.ReplicaRouting;
+import com.example.cabify.model.Driver;
+import com.example.cabify.model.DriverStatus;
+import com.example.cabify.model.User;
+import com.example.cabify.repository.DriverRepository;
+import com.example.cabify.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Near cache of user and driver rows, by id and by email. Every authenticated request resolves its caller here,
+ * so most requests never read identity data from the database.
+ *
+ * Entries are immutable snapshots, not entities, so nothing cached is ever attached to a session. Misses are not
+ * cached, and rows are always loaded from the primary, never from a lagging replica. A miss inside a read-only
+ * transaction is loaded with that transaction suspended, since its connection may already be bound to the replica
+ * and a pin set that late would not move it. Anything that writes a user or driver row evicts it (after commit,
+ * where there is a transaction); the TTL bounds how long a change made outside the application can go unseen.
+ * Hit and miss counts are published as cache.gets metrics, tagged with the cache name.
+ */
+@Component
+public class IdentityCache {
+
+    private static final int MAX_USERS = 100_000;
+    private static final int MAX_DRIVERS = 20_000;
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private ReplicaRouting replicaRouting;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    public record CachedUser(Long userId, String name, String email, Long phone, String password) {
+        static CachedUser of(User user) {
+            return new CachedUser(user.getUserId(), user.getName(), user.getEmail(), user.getPhone(), user.getPassword());
+        }
+    }
+
+    public record CachedDriver(Long driverId, String name, String email, String password, String phone,
+                               String licenseNumber, String vehicleModel, String vehiclePlate, DriverStatus status,
+                               Double latitude, Double longitude) {
+        static CachedDriver of(Driver driver) {
+            return new CachedDriver(driver.getDriverId(), driver.getName(), driver.getEmail(), driver.getPassword(),
+                    driver.getPhone(), driver.getLicenseNumber(), driver.getVehicleModel(), driver.getVehiclePlate(),
+                    driver.getStatus(), driver.getLatitude(), driver.getLongitude());
+        }
+    }
+
+    private final Cache<Long, CachedUser> users = newCache(MAX_USERS);
+    private final Cache<String, Long> userIdsByEmail = newCache(MAX_USERS);
+    private final Cache<Long, CachedDriver> drivers = newCache(MAX_DRIVERS);
+    private final Cache<String, Long> driverIdsByEmail = newCache(MAX_DRIVERS);
+
+    private static <K, V> Cache<K, V> newCache(int maximumSize) {
+        return Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(TTL).recordStats().build();
+    }
+
+    @PostConstruct
+    public void bindMetrics() {
+        if (meterRegistry == null) {
+            return;
+        }
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "identity.users");
+        CaffeineCacheMetrics.monitor(meterRegistry, userIdsByEmail, "identity.user-emails");
+        CaffeineCacheMetrics.monitor(meterRegistry, drivers, "identity.drivers");
+        CaffeineCacheMetrics.monitor(meterRegistry, driverIdsByEmail, "identity.driver-emails");
+    }
+
+    public Optional<CachedUser> user(Long userId) {
+        return Optional.ofNullable(users.get(userId,
+                id -> loadFromPrimary(() -> userRepository.findById(id)).map(CachedUser::of).orElse(null)));
+    }
+
+    public Optional<CachedUser> userByEmail(String email) {
+        Long userId = userIdsByEmail.get(email, key -> loadFromPrimary(() -> userRepository.findByEmail(key))
+                .map(user -> {
+                    users.put(user.getUserId(), CachedUser.of(user));
+                    return user.getUserId();
+                })
+                .orElse(null));
+        return userId == null ? Optional.empty() : user(userId);
+    }
+
+    public Optional<CachedDriver> driver(Long driverId) {
+        return Optional.ofNullable(drivers.get(driverId,
+                id -> loadFromPrimary(() -> driverRepository.findById(id)).map(CachedDriver::of).orElse(null)));
+    }
+
+    public Optional<CachedDriver> driverByEmail(String email) {
+        Long driverId = driverIdsByEmail.get(email, key -> loadFromPrimary(() -> driverRepository.findByEmail(key))
+                .map(driver -> {
+                    drivers.put(driver.getDriverId(), CachedDriver.of(driver));
+                    return driver.getDriverId();
+                })
+                .orElse(null));
+        return driverId == null ? Optional.empty() : driver(driverId);
+    }
+
+    private <T> T loadFromPrimary(Supplier<T> read) {
+        // Write transactions are on the primary already, and may need to see their own uncommitted rows
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return replicaRouting.onPrimary(read);
+        }
+        // Misses are rare, so building the template each time costs nothing worth keeping it for
+        TransactionTemplate suspended = new TransactionTemplate(transactionManager);
+        suspended.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        return suspended.execute(status -> replicaRouting.onPrimary(read));
+    }
+
+    public void evictUser(Long userId, String email) {
+        users.invalidate(userId);
+        userIdsByEmail.invalidate(email);
+    }
+
+    // The email of a driver never changes, so dropping the row snapshot is enough
+    public void evictDriver(Long driverId) {
+        drivers.invalidate(driverId);
+    }
+
+    public void evictDriver(Long driverId, String email) {
+        drivers.invalidate(driverId);
+        driverIdsByEmail.invalidate(email);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.event.RideEventMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Delivers each event to every RideEventSubscriber bean, one after another on the relay thread. If any subscriber
+ * throws, the event is retried for all of them, which is why subscribers deduplicate on the event id.
+ */
+@Component
+public class InProcessEventSink implements IEventSink {
+
+    @Autowired(required = false)
+    private List<RideEventSubscriber> subscribers = List.of();
+
+    @Override
+    public void publish(RideEventMessage message) {
+        for (RideEventSubscriber subscriber : subscribers) {
+            subscriber.onEvent(message);
+        }
+    }
+}
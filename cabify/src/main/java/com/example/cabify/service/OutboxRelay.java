@@ -0,0 +1,140 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.event.RideEventMessage;
+import com.example.cabify.dto.event.RideEventPayload;
+import com.example.cabify.model.OutboxEvent;
+import com.example.cabify.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drains the outbox table to the event sink in id order, a batch at a time.
+ *
+ * An event's row is deleted only after the sink accepted it, so a crash or failed delete means it is sent again:
+ * delivery is at-least-once. When an event fails, the ride's later events in the same batch are held back and the
+ * pass ends there, so one ride's events always arrive in the order they were written; other rides carry on.
+ * The failed event is retried on the next poll.
+ *
+ * An event that has failed cabify.outbox.relay.max-attempts times is parked: it stays in the table with its last
+ * error but is no longer sent, so a poison event can't hold its ride back forever. The ride's later events go out
+ * without it; clearing parked_at puts it back in line.
+ *
+ * Ordering holds for a single relay. With several app instances, enable the relay (cabify.outbox.relay.enabled)
+ * on one of them only.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private IEventSink eventSink;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cabify.outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cabify.outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${cabify.outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Scheduled(fixedDelayString = "${cabify.outbox.relay.poll-ms:500}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        drain();
+    }
+
+    // Publishes pending events until the outbox is empty or a delivery fails; returns how many were delivered
+    public synchronized int drain() {
+        int total = 0;
+        BatchResult result;
+        do {
+            result = relayBatch();
+            total += result.delivered();
+        } while (result.full() && result.failed() == 0);
+        return total;
+    }
+
+    private record BatchResult(int delivered, int failed, boolean full) {
+    }
+
+    private BatchResult relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status ->
+                outboxEventRepository.findByParkedAtIsNullOrderByIdAsc(Limit.of(batchSize)));
+        if (batch == null || batch.isEmpty()) {
+            return new BatchResult(0, 0, false);
+        }
+
+        List<Long> delivered = new ArrayList<>();
+        Map<OutboxEvent, String> failed = new LinkedHashMap<>();
+        Set<Long> heldRides = new HashSet<>();
+        for (OutboxEvent event : batch) {
+            if (heldRides.contains(event.getRideId())) {
+                continue;
+            }
+            try {
+                eventSink.publish(toMessage(event));
+                delivered.add(event.getId());
+            } catch (RuntimeException e) {
+                heldRides.add(event.getRideId());
+                failed.put(event, truncate(String.valueOf(e.getMessage())));
+                log.warn("Outbox event {} ({} for ride ID {}) failed on attempt {}: {}", event.getId(), event.getType(),
+                        event.getRideId(), event.getAttempts() + 1, e.getMessage());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.deleteByIdIn(delivered);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            failed.forEach((event, error) -> {
+                boolean park = event.getAttempts() + 1 >= maxAttempts;
+                outboxEventRepository.recordFailure(event.getId(), error, park ? now : null);
+                if (park) {
+                    log.error("Outbox event {} ({} for ride ID {}) parked after {} failed attempts: {}", event.getId(),
+                            event.getType(), event.getRideId(), event.getAttempts() + 1, error);
+                }
+            });
+        });
+        return new BatchResult(delivered.size(), failed.size(), batch.size() == batchSize);
+    }
+
+    private RideEventMessage toMessage(OutboxEvent event) {
+        try {
+            return new RideEventMessage(event.getId(), event.getType(), event.getRideId(), event.getCreatedAt(),
+                    objectMapper.readValue(event.getPayload(), RideEventPayload.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.event.RideEventPayload;
+import com.example.cabify.model.OutboxEvent;
+import com.example.cabify.model.OutboxEventType;
+import com.example.cabify.model.Payment;
+import com.example.cabify.model.Ride;
+import com.example.cabify.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records ride and payment events in the outbox table. Must be called inside the transaction that makes the change,
+ * so the event commits (or rolls back) together with it; OutboxRelay publishes it afterwards.
+ */
+@Component
+public class OutboxWriter {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rideBooked(Ride ride) {
+        append(OutboxEventType.RIDE_BOOKED, ride, null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rideEnded(Ride ride) {
+        append(OutboxEventType.RIDE_ENDED, ride, ride.getPayment());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void paymentRecorded(Payment payment) {
+        append(OutboxEventType.PAYMENT_RECORDED, payment.getRide(), payment);
+    }
+
+    private void append(OutboxEventType type, Ride ride, Payment payment) {
+        RideEventPayload payload = new RideEventPayload(ride.getId(), ride.getUser().getUserId(),
+                ride.getDriver().getDriverId(), ride.getSource(), ride.getDestination(), ride.getStatus(), ride.getFare(),
+                payment == null ? null : payment.getPaymentId(),
+                payment == null ? null : payment.getAmount(),
+                payment == null ? null : payment.getPaymentMethod(),
+                payment == null ? null : payment.getStatus());
+        try {
+            outboxEventRepository.save(new OutboxEvent(ride.getId(), type, objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + type + " for ride ID " + ride.getId(), e);
+        }
+    }
+}
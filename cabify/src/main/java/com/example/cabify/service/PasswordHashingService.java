@@ -0,0 +1,147 @@
+package com.example.cabify.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt (registration and login) on its own small pool instead of on whatever request thread asked.
+ *
+ * At most cabify.auth.hashing.threads hashes run at once and cabify.auth.hashing.queue-capacity wait; anything more is
+ * turned away straight away with a 503. A login storm can therefore hold at most threads + queue-capacity request
+ * threads and that many cores' worth of BCrypt, and the rest of the Tomcat pool keeps serving rides.
+ *
+ * Metrics: auth.password.hashing timer (queue wait plus hashing) and auth.password.rejected counter, both tagged
+ * op=encode|matches, plus the executor.* meters of pool "auth.hashing".
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // 0 means half the cores, so hashing never takes the whole machine
+    @Value("${cabify.auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${cabify.auth.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+    // Hash of a password nobody has, checked against when a login names an account that doesn't exist
+    private String unknownAccountHash;
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+    private Counter encodeRejected;
+    private Counter matchesRejected;
+
+    @PostConstruct
+    public void start() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "password-hashing-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new SimpleMeterRegistry();
+        new ExecutorServiceMetrics(executor, "auth.hashing", Tags.empty()).bindTo(registry);
+        encodeTimer = timer(registry, "encode");
+        matchesTimer = timer(registry, "matches");
+        encodeRejected = rejected(registry, "encode");
+        matchesRejected = rejected(registry, "matches");
+        unknownAccountHash = passwordEncoder.encode("cabify-unknown-account");
+        log.info("Password hashing pool: {} threads, queue capacity {}", poolSize, queueCapacity);
+    }
+
+    private static Timer timer(MeterRegistry registry, String op) {
+        return Timer.builder("auth.password.hashing")
+                .description("Time from asking for a password hash or check to getting it, queueing included")
+                .tag("op", op)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    private static Counter rejected(MeterRegistry registry, String op) {
+        return Counter.builder("auth.password.rejected")
+                .description("Password hashes turned away because the hashing pool was full")
+                .tag("op", op)
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    public String encode(String rawPassword) {
+        return run(encodeTimer, encodeRejected, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(matchesTimer, matchesRejected, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Does the same BCrypt work as {@link #matches} for a login whose email has no account, so the response time
+     * doesn't tell which emails are registered. Always false.
+     */
+    public boolean matchesUnknownAccount(String rawPassword) {
+        matches(rawPassword, unknownAccountHash);
+        return false;
+    }
+
+    private <T> T run(Timer timer, Counter rejected, Callable<T> work) {
+        long started = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(work);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password hashing pool is full ({} queued), rejecting request", executor.getQueue().size());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many sign-ins right now. Please try again shortly.");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a password hash", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } finally {
+            timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+}
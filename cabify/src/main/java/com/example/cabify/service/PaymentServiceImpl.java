@@ -1,12 +1,13 @@
 package com.example.cabify.service;
 
+import com.example.cabify.config.ReplicaRouting;
 import com.example.cabify.dto.payment.PaymentRequestDto;
 import com.example.cabify.dto.payment.PaymentResponseDto;
 import com.example.cabify.exception.ResourceNotFoundException;
 import com.example.cabify.model.*;
+import com.example.cabify.repository.ArchivedRideRepository;
 import com.example.cabify.repository.PaymentRepository;
 import com.example.cabify.repository.RideRepository;
-import com.example.cabify.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,7 +22,19 @@ public class PaymentServiceImpl implements IPaymentService { // <--- Implements
     private RideRepository rideRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ArchivedRideRepository archivedRideRepository;
+
+    @Autowired
+    private IdentityCache identityCache;
+
+    @Autowired
+    private ReplicaRouting replicaRouting;
+
+    @Autowired
+    private RideEventLog rideEventLog;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
 
     @Override // <--- Added Override annotation
     @Transactional
@@ -30,10 +43,10 @@ public class PaymentServiceImpl implements IPaymentService { // <--- Implements
         Ride ride = rideRepository.findById(request.getRideId())
                 .orElseThrow(() -> new ResourceNotFoundException("Ride not found with ID: " + request.getRideId()));
 
-        User user = userRepository.findById(request.getUserId())
+        IdentityCache.CachedUser user = identityCache.user(request.getUserId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + request.getUserId()));
 
-        if (!ride.getUser().getUserId().equals(user.getUserId())) {
+        if (!ride.getUser().getUserId().equals(user.userId())) {
             throw new SecurityException("Unauthorized: You cannot pay for another user's ride.");
         }
         if (ride.getStatus() != RideStatus.COMPLETED) {
@@ -52,22 +65,35 @@ public class PaymentServiceImpl implements IPaymentService { // <--- Implements
 
         Payment payment = new Payment();
         payment.setRide(ride);
-        payment.setUser(user);
+        payment.setUser(ride.getUser()); // Same user, checked above, and already loaded with the ride
         payment.setAmount(ride.getFare());
         payment.setPaymentMethod(PaymentMethod.valueOf(request.getPaymentMethod()));
         payment.setStatus(status);
 
         paymentRepository.save(payment);
+        replicaRouting.recordWrite(ReplicaRouting.ride(ride.getId()));
+        rideEventLog.recordPayment(ride.getId(), user.userId(), ride.getDriver().getDriverId(), payment.getAmount());
         ride.setStatus(RideStatus.PAID);
         rideRepository.save(ride);
+        outboxWriter.paymentRecorded(payment);
 
         return mapToDto(payment);
     }
 
     @Override // <--- Added Override annotation
+    @Transactional(readOnly = true)
     public PaymentResponseDto getReceipt(Long rideId) {
-        Ride ride = rideRepository.findById(rideId)
-                .orElseThrow(() -> new ResourceNotFoundException("Ride not found with ID: " + rideId));
+        replicaRouting.readYourWrites(ReplicaRouting.ride(rideId));
+        Ride ride = rideRepository.findById(rideId).orElse(null);
+        if (ride == null) {
+            // Old rides live in the archive, with their payment folded into the same row
+            ArchivedRide archived = archivedRideRepository.findById(rideId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Ride not found with ID: " + rideId));
+            if (archived.getPaymentId() == null) {
+                throw new ResourceNotFoundException("Receipt not found for ride ID: " + rideId);
+            }
+            return mapToDto(archived);
+        }
 
         Payment payment = paymentRepository.findByRide(ride)
                 .orElseThrow(() -> new ResourceNotFoundException("Receipt not found for ride ID: " + rideId));
@@ -79,7 +105,7 @@ public class PaymentServiceImpl implements IPaymentService { // <--- Implements
         return true;
     }
 
-    private PaymentResponseDto mapToDto(Payment payment) {
+    PaymentResponseDto mapToDto(Payment payment) {
         PaymentResponseDto dto = new PaymentResponseDto();
         dto.setPaymentId(payment.getPaymentId());
         dto.setRideId(payment.getRide().getId());
@@ -88,4 +114,14 @@ public class PaymentServiceImpl implements IPaymentService { // <--- Implements
         dto.setTimestamp(payment.getTimestamp());
         return dto;
     }
+
+    PaymentResponseDto mapToDto(ArchivedRide ride) {
+        PaymentResponseDto dto = new PaymentResponseDto();
+        dto.setPaymentId(ride.getPaymentId());
+        dto.setRideId(ride.getId());
+        dto.setAmount(ride.getPaymentAmount());
+        dto.setStatus(ride.getPaymentStatus());
+        dto.setTimestamp(ride.getPaymentTimestamp());
+        return dto;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.example.cabify.service;
+
+import com.example.cabify.model.Zone;
+import com.example.cabify.util.DistanceMatrix;
+import com.example.cabify.util.LocationDictionary;
+import com.example.cabify.util.PricingSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Holds the current {@link PricingSnapshot}: rate slabs and route distances, read from pricing.json on the
+ * classpath or from the file named by cabify.pricing.file.
+ *
+ * An external file is checked for changes on a schedule. A changed file is parsed and turned into a complete new
+ * snapshot on the scheduler thread, then published with a single volatile write. Request threads never wait on a
+ * reload; they keep pricing from whichever snapshot they picked up. A file that doesn't parse or validate is
+ * logged and ignored, and the previous version stays live.
+ */
+@Component
+@Slf4j
+public class PricingConfig {
+
+    private static final String DEFAULT_RESOURCE = "pricing.json";
+
+    @Autowired
+    private RoutingEngine routingEngine;
+
+    @Value("${cabify.pricing.file:}")
+    private String pricingFile;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile PricingSnapshot current;
+    // Modification time and size of the file behind the current snapshot
+    private String loadedStamp;
+
+    // Shape of the pricing file
+    record PricingFile(List<PricingSnapshot.Slab> slabs, Double unreachableKm, Map<String, Double> routes) {
+    }
+
+    public PricingConfig() {
+        current = loadDefault(1);
+    }
+
+    public PricingSnapshot current() {
+        return current;
+    }
+
+    // Road graph and external file are only known once the bean is wired
+    @PostConstruct
+    public void init() {
+        if (pricingFile == null || pricingFile.isBlank()) {
+            if (routingEngine != null && routingEngine.isLoaded()) {
+                current = loadDefault(current.version() + 1);
+            }
+            return;
+        }
+        reloadIfChanged();
+        if (loadedStamp == null) {
+            throw new IllegalStateException("Could not load pricing file " + pricingFile);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cabify.pricing.reload-ms:10000}")
+    public void reloadIfChanged() {
+        if (pricingFile == null || pricingFile.isBlank()) {
+            return;
+        }
+        Path file = Path.of(pricingFile);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            String stamp = attributes.lastModifiedTime() + "/" + attributes.size();
+            if (stamp.equals(loadedStamp)) {
+                return;
+            }
+            long started = System.nanoTime();
+            PricingSnapshot next;
+            try (InputStream in = Files.newInputStream(file)) {
+                next = build(objectMapper.readValue(in, PricingFile.class), current.version() + 1);
+            }
+            current = next;
+            loadedStamp = stamp;
+            log.info("Pricing reloaded from {}: {} in {} ms", file, next, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.error("Pricing file {} could not be loaded, keeping version {}: {}", file, current.version(), e.getMessage());
+        }
+    }
+
+    private PricingSnapshot loadDefault(long version) {
+        try (InputStream in = new ClassPathResource(DEFAULT_RESOURCE).getInputStream()) {
+            return build(objectMapper.readValue(in, PricingFile.class), version);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + DEFAULT_RESOURCE, e);
+        }
+    }
+
+    PricingSnapshot build(PricingFile file, long version) {
+        if (file.routes() == null || file.routes().isEmpty()) {
+            throw new IllegalArgumentException("Pricing file has no routes");
+        }
+        // Every location has to be one dispatch knows how to pick up from
+        Set<String> names = new TreeSet<>();
+        for (Map.Entry<String, Double> route : file.routes().entrySet()) {
+            String[] ends = route.getKey().split("-");
+            if (ends.length != 2 || route.getValue() == null || route.getValue() <= 0) {
+                throw new IllegalArgumentException("Bad route entry: " + route);
+            }
+            for (String end : ends) {
+                if (Zone.of(end) == null) {
+                    throw new IllegalArgumentException("Route " + route.getKey() + " uses unknown location " + end);
+                }
+                names.add(end);
+            }
+        }
+        LocationDictionary locations = new LocationDictionary(names);
+
+        List<DistanceMatrix.Edge> edges = new ArrayList<>();
+        file.routes().forEach((key, km) -> {
+            String[] ends = key.split("-");
+            edges.add(new DistanceMatrix.Edge(locations.idOf(ends[0]), locations.idOf(ends[1]), km));
+        });
+        DistanceMatrix table = DistanceMatrix.allPairsShortest(locations.size(), edges);
+
+        double unreachableKm = file.unreachableKm() != null ? file.unreachableKm() : 15.0;
+        return new PricingSnapshot(version, locations, withRoadDistances(locations, table), file.slabs(), unreachableKm);
+    }
+
+    // With a road graph loaded, distances come from the graph; pairs it doesn't connect, or that are off its map,
+    // keep the table distance. The matrix still only covers the named locations, which is what booking can dispatch
+    // to; trips between arbitrary coordinates are priced straight off the graph by
+    // IRideService.calculateFare(double[], double[])
+    private DistanceMatrix withRoadDistances(LocationDictionary locations, DistanceMatrix table) {
+        if (routingEngine == null || !routingEngine.isLoaded()) {
+            return table;
+        }
+        List<String> names = locations.names();
+        return DistanceMatrix.of(names.size(), (from, to) -> {
+            double km;
+            try {
+                km = routingEngine.distanceKm(Zone.pointOf(names.get(from)), Zone.pointOf(names.get(to)));
+            } catch (IllegalArgumentException e) {
+                km = Double.POSITIVE_INFINITY; // location off the graph's map; the table still has it
+            }
+            return km == Double.POSITIVE_INFINITY ? table.distance(from, to) : Math.round(km * 10.0) / 10.0;
+        });
+    }
+}
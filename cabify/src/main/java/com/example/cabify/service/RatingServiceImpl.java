@@ -3,9 +3,11 @@ package com.example.cabify.service;
 import com.example.cabify.dto.rating.RatingRequestDto;
 import com.example.cabify.dto.rating.RatingResponseDto;
 import com.example.cabify.exception.ResourceNotFoundException;
+import com.example.cabify.model.ArchivedRide;
 import com.example.cabify.model.Rating;
 import com.example.cabify.model.Ride;
 import com.example.cabify.model.RideStatus;
+import com.example.cabify.repository.ArchivedRideRepository;
 import com.example.cabify.repository.RatingRepository;
 import com.example.cabify.repository.RideRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +25,12 @@ public class RatingServiceImpl implements IRatingService {
     @Autowired
     private RideRepository rideRepository;
 
+    @Autowired
+    private ArchivedRideRepository archivedRideRepository;
+
+    @Autowired
+    private RideEventLog rideEventLog;
+
     @Override
     @Transactional
     public RatingResponseDto submitRating(RatingRequestDto ratingDto) {
@@ -53,17 +61,47 @@ public class RatingServiceImpl implements IRatingService {
         rating.setComments(ratingDto.getComments());
 
         Rating savedRating = ratingRepository.save(rating);
+        rideEventLog.recordRating(ride.getId(), rating.getPassengerId(), rating.getDriverId(), rating.getScore());
         return mapToResponseDto(savedRating);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RatingResponseDto> getRatingsForUser(Long userId) {
         
         List<Rating> ratings = ratingRepository.findByPassengerId(userId);
-        return ratings.stream().map(this::mapToResponseDto).collect(Collectors.toList());
+        List<RatingResponseDto> result = ratings.stream().map(this::mapToResponseDto).collect(Collectors.toList());
+        // Plus the ratings that were archived along with their rides
+        archivedRideRepository.findByUserIdAndRatingIdIsNotNull(userId).stream()
+                .map(this::mapToResponseDto)
+                .forEach(result::add);
+        return result;
     }
 
-    private RatingResponseDto mapToResponseDto(Rating rating) {
+    @Override
+    @Transactional(readOnly = true)
+    public List<RatingResponseDto> getRatingsForDriver(Long driverId) {
+        List<RatingResponseDto> result = ratingRepository.findByDriverId(driverId).stream()
+                .map(this::mapToResponseDto).collect(Collectors.toList());
+        // The archiver moves ratings of old rides into ride_archive; they still count for the driver
+        archivedRideRepository.findByDriverIdAndRatingIdIsNotNull(driverId).stream()
+                .map(this::mapToResponseDto)
+                .forEach(result::add);
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Double getAverageRatingForDriver(Long driverId) {
+        List<RatingResponseDto> ratings = getRatingsForDriver(driverId);
+        if (ratings.isEmpty()) {
+            return null;
+        }
+        double average = ratings.stream().mapToInt(RatingResponseDto::getScore).average().orElseThrow();
+        return Math.round(average * 100.0) / 100.0;
+    }
+
+    RatingResponseDto mapToResponseDto(Rating rating) {
         RatingResponseDto dto = new RatingResponseDto();
         dto.setRatingId(rating.getRatingId());
         dto.setRideId(rating.getRide().getId());
@@ -74,4 +112,16 @@ public class RatingServiceImpl implements IRatingService {
         dto.setCreatedAt(rating.getCreatedAt());
         return dto;
     }
+
+    RatingResponseDto mapToResponseDto(ArchivedRide ride) {
+        RatingResponseDto dto = new RatingResponseDto();
+        dto.setRatingId(ride.getRatingId());
+        dto.setRideId(ride.getId());
+        dto.setPassengerId(ride.getUserId());
+        dto.setDriverId(ride.getDriverId());
+        dto.setScore(ride.getRatingScore());
+        dto.setComments(ride.getRatingComments());
+        dto.setCreatedAt(ride.getRatingCreatedAt());
+        return dto;
+    }
 }
\ No newline at end of file
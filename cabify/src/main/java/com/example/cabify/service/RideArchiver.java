@@ -0,0 +1,100 @@
+package com.example.cabify.service;
+
+import com.example.cabify.model.ArchivedRide;
+import com.example.cabify.model.Rating;
+import com.example.cabify.repository.ArchivedRideRepository;
+import com.example.cabify.repository.PaymentRepository;
+import com.example.cabify.repository.RatingRepository;
+import com.example.cabify.repository.RideRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves finished rides (PAID or CANCELLED) out of the live tables once they are older than
+ * cabify.archive.after-days. Each batch copies the rides, with their payment and rating, into ride_archive and
+ * deletes the originals in one transaction, so a ride is always in exactly one of the two tiers.
+ *
+ * Archived rides still show up in ride history, receipts and the passenger's ratings, but they can no longer be
+ * paid for or rated.
+ */
+@Component
+@Slf4j
+public class RideArchiver {
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private ArchivedRideRepository archivedRideRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cabify.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cabify.archive.after-days:30}")
+    private int afterDays;
+
+    @Value("${cabify.archive.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${cabify.archive.interval-ms:3600000}", initialDelayString = "${cabify.archive.interval-ms:3600000}")
+    public void archiveOldRides() {
+        if (!enabled) {
+            return;
+        }
+        int archived = archiveBefore(LocalDateTime.now().minusDays(afterDays));
+        if (archived > 0) {
+            log.info("Archived {} rides finished more than {} days ago", archived, afterDays);
+        }
+    }
+
+    // Archives every finished ride whose last activity is before the cutoff; returns how many were moved
+    public int archiveBefore(LocalDateTime cutoff) {
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = rideRepository.findArchivableIds(cutoff, Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Rating> ratings = ratingRepository.findByRideIdIn(ids).stream()
+                .collect(Collectors.toMap(rating -> rating.getRide().getId(), Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedRide> rows = rideRepository.findWithDetailsByIdIn(ids).stream()
+                .map(ride -> ArchivedRide.of(ride, ratings.get(ride.getId()), now))
+                .toList();
+        archivedRideRepository.saveAllAndFlush(rows);
+
+        // Children first, then the rides themselves
+        ratingRepository.deleteByRideIdIn(ids);
+        paymentRepository.deleteByRideIdIn(ids);
+        rideRepository.deleteByIdIn(ids);
+        return ids.size();
+    }
+}
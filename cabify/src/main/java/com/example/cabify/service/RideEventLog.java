@@ -0,0 +1,200 @@
+package com.example.cabify.service;
+
+import com.example.cabify.model.Zone;
+import com.example.cabify.util.RideEventJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Consumer;
+
+/**
+ * Journals every ride state change (booked, ended, paid, rated) once its transaction commits, and keeps the
+ * {@link RideProjections} built from the journal.
+ *
+ * Startup loads the latest snapshot and replays only the events after it. Snapshots are written on a schedule and
+ * at shutdown; each records the journal position it covers, and the journal is flushed before the snapshot is
+ * written, so a snapshot never claims events the disk doesn't have.
+ *
+ * The journal sits next to the database, not in its transaction: a crash between commit and append loses that
+ * event from the journal (the database row is still there). Off unless cabify.journal.dir names a directory.
+ */
+@Component
+@Slf4j
+public class RideEventLog {
+
+    private static final int SNAPSHOT_MAGIC = 0x43415053; // "CAPS"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    @Value("${cabify.journal.dir:}")
+    private String journalDir;
+
+    private RideEventJournal journal;
+    private RideProjections projections = new RideProjections();
+    private long snapshotPosition;
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (journalDir == null || journalDir.isBlank()) {
+            log.info("Ride event journal is disabled");
+            return;
+        }
+        long started = System.nanoTime();
+        Path dir = Path.of(journalDir);
+        journal = RideEventJournal.open(dir);
+        snapshotPosition = loadSnapshot(dir.resolve("snapshot.bin"));
+        if (snapshotPosition > journal.position()) {
+            // Snapshot is ahead of what survived in the journal; rebuild from scratch rather than trust it
+            log.warn("Snapshot at event {} is past the end of the journal ({}), replaying everything",
+                    snapshotPosition, journal.position());
+            projections = new RideProjections();
+            snapshotPosition = 0;
+        }
+        journal.replay(snapshotPosition, journal.position(), projections::apply);
+        log.info("Ride event journal opened: {} events, {} replayed after the snapshot in {} ms", journal.position(),
+                journal.position() - snapshotPosition, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public RideProjections projections() {
+        return projections;
+    }
+
+    public void recordBooked(Long rideId, Long userId, Long driverId, Zone pickup, double fare) {
+        record(RideEventJournal.Type.RIDE_BOOKED, rideId, userId, driverId, pickup == null ? -1 : pickup.ordinal(), fare);
+    }
+
+    public void recordEnded(Long rideId, Long userId, Long driverId, double fare) {
+        record(RideEventJournal.Type.RIDE_ENDED, rideId, userId, driverId, -1, fare);
+    }
+
+    public void recordPayment(Long rideId, Long userId, Long driverId, double amount) {
+        record(RideEventJournal.Type.PAYMENT_MADE, rideId, userId, driverId, -1, amount);
+    }
+
+    public void recordRating(Long rideId, Long userId, Long driverId, int score) {
+        record(RideEventJournal.Type.RATING_SUBMITTED, rideId, userId, driverId, -1, score);
+    }
+
+    // Appended after commit, so the journal never holds a change that was rolled back
+    private void record(RideEventJournal.Type type, Long rideId, Long userId, Long driverId, int zone, double value) {
+        if (journal == null) {
+            return;
+        }
+        long timestamp = System.currentTimeMillis();
+        Runnable append = () -> append(type, timestamp, rideId, userId, driverId, zone, value);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                append.run();
+            }
+        });
+    }
+
+    private synchronized void append(RideEventJournal.Type type, long timestamp, Long rideId, Long userId,
+                                     Long driverId, int zone, double value) {
+        try {
+            // Built in here too: a bad field (e.g. a missing id) must fail only the journal entry
+            RideEventJournal.Event event = new RideEventJournal.Event(type, timestamp, rideId, userId, driverId, zone, value);
+            journal.append(event.type(), event.timestamp(), event.rideId(), event.userId(), event.driverId(),
+                    event.zone(), event.value());
+            projections.apply(event);
+        } catch (RuntimeException e) {
+            // The ride itself is committed; losing its journal entry must not fail the request
+            log.error("Could not journal {} for ride ID {}: {}", type, rideId, e.toString());
+        }
+    }
+
+    /**
+     * Replays the journal from an event position up to its current end, for rebuilding other derived views.
+     */
+    public void replay(long from, Consumer<RideEventJournal.Event> consumer) {
+        if (journal == null) {
+            return;
+        }
+        long to;
+        synchronized (this) {
+            to = journal.position();
+        }
+        try {
+            journal.replay(from, to, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not replay the ride event journal", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cabify.journal.snapshot-ms:60000}")
+    public void snapshot() {
+        if (journal == null) {
+            return;
+        }
+        Path dir = Path.of(journalDir);
+        Path tmp = dir.resolve("snapshot.tmp");
+        try {
+            synchronized (this) {
+                if (journal.position() == snapshotPosition) {
+                    return;
+                }
+                journal.force();
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeInt(SNAPSHOT_MAGIC);
+                    out.writeInt(SNAPSHOT_VERSION);
+                    out.writeLong(journal.position());
+                    projections.writeTo(out);
+                }
+                snapshotPosition = journal.position();
+            }
+            Files.move(tmp, dir.resolve("snapshot.bin"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Ride projections snapshot written at event {}", snapshotPosition);
+        } catch (IOException e) {
+            log.error("Could not write the ride projections snapshot: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (journal == null) {
+            return;
+        }
+        snapshot();
+        synchronized (this) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    private long loadSnapshot(Path file) {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("not a snapshot file");
+            }
+            long position = in.readLong();
+            projections.readFrom(in);
+            return position;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable snapshot {}: {}", file, e.getMessage());
+            projections = new RideProjections();
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.event.RideEventMessage;
+
+// In-process consumer of ride and payment events (notifications, analytics, payouts). Beans implementing this
+// are picked up by InProcessEventSink.
+public interface RideEventSubscriber {
+
+    // May see the same event more than once; throwing makes the relay retry it
+    void onEvent(RideEventMessage message);
+}
@@ -0,0 +1,125 @@
+package com.example.cabify.service;
+
+import com.example.cabify.model.Zone;
+import com.example.cabify.util.RideEventJournal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+/**
+ * Views derived purely from the ride event journal: per-driver trips, earnings and ratings, and pickups per zone.
+ * Rebuilt at startup from the last snapshot plus the events after it, then kept current as events are appended.
+ */
+public class RideProjections {
+
+    private static final class DriverTotals {
+        private long rides;
+        private double earnings;
+        private long ratings;
+        private long ratingSum;
+    }
+
+    private final Map<Long, DriverTotals> drivers = new HashMap<>();
+    private final long[] pickups = new long[Zone.values().length];
+    private long payments;
+    private double paymentTotal;
+
+    public synchronized void apply(RideEventJournal.Event event) {
+        switch (event.type()) {
+            case RIDE_BOOKED -> {
+                if (event.zone() >= 0 && event.zone() < pickups.length) {
+                    pickups[event.zone()]++;
+                }
+            }
+            case RIDE_ENDED -> {
+                DriverTotals totals = totals(event.driverId());
+                totals.rides++;
+                totals.earnings += event.value();
+            }
+            case PAYMENT_MADE -> {
+                payments++;
+                paymentTotal += event.value();
+            }
+            case RATING_SUBMITTED -> {
+                DriverTotals totals = totals(event.driverId());
+                totals.ratings++;
+                totals.ratingSum += (long) event.value();
+            }
+        }
+    }
+
+    private DriverTotals totals(long driverId) {
+        return drivers.computeIfAbsent(driverId, id -> new DriverTotals());
+    }
+
+    public synchronized long completedRides(long driverId) {
+        DriverTotals totals = drivers.get(driverId);
+        return totals == null ? 0 : totals.rides;
+    }
+
+    public synchronized double earnings(long driverId) {
+        DriverTotals totals = drivers.get(driverId);
+        return totals == null ? 0 : Math.round(totals.earnings * 100.0) / 100.0;
+    }
+
+    public synchronized OptionalDouble averageRating(long driverId) {
+        DriverTotals totals = drivers.get(driverId);
+        return totals == null || totals.ratings == 0 ? OptionalDouble.empty()
+                : OptionalDouble.of((double) totals.ratingSum / totals.ratings);
+    }
+
+    public synchronized long pickups(Zone zone) {
+        return pickups[zone.ordinal()];
+    }
+
+    public synchronized long payments() {
+        return payments;
+    }
+
+    public synchronized double paymentTotal() {
+        return Math.round(paymentTotal * 100.0) / 100.0;
+    }
+
+    synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(pickups.length);
+        for (long count : pickups) {
+            out.writeLong(count);
+        }
+        out.writeLong(payments);
+        out.writeDouble(paymentTotal);
+        out.writeInt(drivers.size());
+        for (Map.Entry<Long, DriverTotals> entry : drivers.entrySet()) {
+            DriverTotals totals = entry.getValue();
+            out.writeLong(entry.getKey());
+            out.writeLong(totals.rides);
+            out.writeDouble(totals.earnings);
+            out.writeLong(totals.ratings);
+            out.writeLong(totals.ratingSum);
+        }
+    }
+
+    synchronized void readFrom(DataInputStream in) throws IOException {
+        int zones = in.readInt();
+        for (int z = 0; z < zones; z++) {
+            long count = in.readLong();
+            if (z < pickups.length) {
+                pickups[z] = count;
+            }
+        }
+        payments = in.readLong();
+        paymentTotal = in.readDouble();
+        drivers.clear();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            DriverTotals totals = totals(in.readLong());
+            totals.rides = in.readLong();
+            totals.earnings = in.readDouble();
+            totals.ratings = in.readLong();
+            totals.ratingSum = in.readLong();
+        }
+    }
+}
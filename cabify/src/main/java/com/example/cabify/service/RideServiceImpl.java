@@ -1,17 +1,30 @@
 package com.example.cabify.service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.example.cabify.config.ReplicaRouting;
+import com.example.cabify.dto.ride.FareQuoteDto;
+import com.example.cabify.dto.ride.RideCursor;
+import com.example.cabify.dto.ride.RideHistoryPageDto;
 import com.example.cabify.dto.ride.RideRequestDto;
 import com.example.cabify.dto.ride.RideResponseDto;
+import com.example.cabify.dto.ride.RoutePairDto;
 import com.example.cabify.exception.ResourceNotFoundException;
 import com.example.cabify.model.Driver;
 import com.example.cabify.model.DriverStatus;
@@ -21,9 +34,15 @@ import com.example.cabify.model.PaymentStatus;
 import com.example.cabify.model.Ride;
 import com.example.cabify.model.RideStatus;
 import com.example.cabify.model.User;
+import com.example.cabify.model.Zone;
+import com.example.cabify.repository.ArchivedRideRepository;
 import com.example.cabify.repository.DriverRepository;
 import com.example.cabify.repository.RideRepository;
 import com.example.cabify.repository.UserRepository;
+import com.example.cabify.util.PricingSnapshot;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -39,95 +58,148 @@ public class RideServiceImpl implements IRideService {
 
     @Autowired
     private DriverRepository driverRepository;
-    private static final Map<String, Double> routeDistances = new HashMap<>();
-    static {
-        // --- 8 MAJOR HUBS
-        routeDistances.put("Adyar-AnnaNagar", 14.0);
-        routeDistances.put("Adyar-Guindy", 7.0);
-        routeDistances.put("Adyar-Marina", 8.0);
-        routeDistances.put("Adyar-Sholinganallur", 14.0);
-        routeDistances.put("Adyar-Tambaram", 18.0);
-        routeDistances.put("Adyar-TNagar", 6.0);
-        routeDistances.put("Adyar-Velachery", 5.0);
-
-        // 2. Anna Nagar Connections
-        routeDistances.put("AnnaNagar-Guindy", 11.0);
-        routeDistances.put("AnnaNagar-Marina", 12.0);
-        routeDistances.put("AnnaNagar-Sholinganallur", 26.0);
-        routeDistances.put("AnnaNagar-Tambaram", 22.0);
-        routeDistances.put("AnnaNagar-TNagar", 9.0);
-        routeDistances.put("AnnaNagar-Velachery", 16.0);
-
-        // 3. Guindy Connections
-        routeDistances.put("Guindy-Marina", 12.0);
-        routeDistances.put("Guindy-Sholinganallur", 16.0);
-        routeDistances.put("Guindy-Tambaram", 14.0);
-        routeDistances.put("Guindy-TNagar", 6.0);
-        routeDistances.put("Guindy-Velachery", 4.0);
-
-        // 4. Marina Connections
-        routeDistances.put("Marina-Sholinganallur", 22.0);
-        routeDistances.put("Marina-Tambaram", 26.0);
-        routeDistances.put("Marina-TNagar", 7.0);
-        routeDistances.put("Marina-Velachery", 13.0);
-
-        // 5. Sholinganallur Connections (The OMR Hub)
-        routeDistances.put("Sholinganallur-Tambaram", 14.0);
-        routeDistances.put("Sholinganallur-TNagar", 19.0);
-        routeDistances.put("Sholinganallur-Velachery", 10.0);
-
-        // 6. Tambaram Connections
-        routeDistances.put("Tambaram-TNagar", 18.0);
-        routeDistances.put("Tambaram-Velachery", 14.0);
-
-        // 7. TNagar Connections
-        routeDistances.put("TNagar-Velachery", 9.0);
-
-        // --- OMR LOCALS (Short Distance Connectors) ---
-        routeDistances.put("Kelambakkam-Siruseri", 5.0);
-        routeDistances.put("Navalur-Siruseri", 7.0);
-        routeDistances.put("Navalur-Sholinganallur", 5.0);
-        routeDistances.put("Medavakkam-Sholinganallur", 8.0);
-        routeDistances.put("Perungudi-Thoraipakkam", 3.0);
-        routeDistances.put("Perungudi-Velachery", 4.0);
-        routeDistances.put("Thoraipakkam-Sholinganallur", 6.0);
-    }
+
+    @Autowired
+    private ArchivedRideRepository archivedRideRepository;
+
+    @Autowired
+    private DriverAvailabilityIndex driverAvailabilityIndex;
+
+    @Autowired
+    private IdentityCache identityCache;
+
+    @Autowired
+    private ReplicaRouting replicaRouting;
+
+    @Autowired
+    private RideEventLog rideEventLog;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private SurgePricingEngine surgePricingEngine;
+
+    @Autowired
+    private PricingConfig pricingConfig;
+
+    @Autowired
+    private RoutingEngine routingEngine;
+
+    // Change feed only serves rows at least this old, so slow transactions have committed by then
+    @Value("${cabify.history.change-feed-lag-ms:2000}")
+    private long changeFeedLagMs;
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final RideCursor NO_CHANGES = new RideCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+    // Orders of the history listings, for merging the live and archived tiers
+    private static final Comparator<RideResponseDto> BY_ID = Comparator.comparing(RideResponseDto::getRideId);
+    private static final Comparator<RideResponseDto> NEWEST_FIRST = Comparator
+            .comparing(RideResponseDto::getBookingTime).thenComparing(RideResponseDto::getRideId).reversed();
+    private static final Comparator<RideResponseDto> OLDEST_CHANGE_FIRST = Comparator
+            .comparing(RideResponseDto::getUpdatedAt).thenComparing(RideResponseDto::getRideId);
+
+    private static final int QUOTE_CACHE_SIZE = 10_000;
+    private static final Duration QUOTE_TTL = Duration.ofMinutes(5);
+
+    // Quotes by (pricing version, surge version, source id, destination id), packed into one long with 16 bits
+    // each. A reload or a new surge multiplier means a new key, so old entries simply stop being hit and age out.
+    // The versions only wrap after 65k changes, far more than can happen within the TTL.
+    private final Cache<Long, Double> quotes = Caffeine.newBuilder()
+            .maximumSize(QUOTE_CACHE_SIZE)
+            .expireAfterWrite(QUOTE_TTL)
+            .build();
 
     @Override
     public double calculateFare(String source, String destination) {
-        String src = validateAndFormat(source);
-        String dest = validateAndFormat(destination);
-        String routeKey = (src.compareTo(dest) < 0) ? src + "-" + dest : dest + "-" + src;
-
-        Double distance = routeDistances.getOrDefault(routeKey, 15.0);
-
-        double ratePerKm;
-        if (distance > 30) {
-            ratePerKm = 7.0;
-        } else if (distance > 20) {
-            ratePerKm = 8.0;
-        } else if (distance > 10) {
-            ratePerKm = 9.0;
-        } else {
-            ratePerKm = 10.0;
+        PricingSnapshot pricing = pricingConfig.current();
+        return quote(pricing, locationId(pricing, source), locationId(pricing, destination));
+    }
+
+    @Override
+    public double calculateFare(double[] source, double[] destination) {
+        if (!routingEngine.isLoaded()) {
+            throw new IllegalArgumentException("Fares between arbitrary points need a road graph (cabify.routing.graph-file)");
         }
-        return Math.round((distance * ratePerKm) * 100.0) / 100.0;
+        double km = routingEngine.distanceKm(source, destination);
+        if (km == Double.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("No road connects these two points");
+        }
+        PricingSnapshot pricing = pricingConfig.current();
+        // Same rounding as the location-to-location distances built from the graph
+        double fare = pricing.fareFor(Math.round(km * 10.0) / 10.0);
+        return withSurge(fare, surgePricingEngine.multiplier(Zone.nearestTo(source[0], source[1])));
+    }
+
+    @Override
+    public List<FareQuoteDto> estimateFares(List<RoutePairDto> routes) {
+        List<FareQuoteDto> result = new ArrayList<>(routes.size());
+        for (RoutePairDto route : routes) {
+            try {
+                result.add(new FareQuoteDto(route.getSource(), route.getDestination(),
+                        calculateFare(route.getSource(), route.getDestination()), null));
+            } catch (IllegalArgumentException e) {
+                result.add(new FareQuoteDto(route.getSource(), route.getDestination(), null, e.getMessage()));
+            }
+        }
+        return result;
+    }
+
+    private double quote(PricingSnapshot pricing, int srcId, int destId) {
+        long key = (pricing.version() & 0xffff) << 48 | (surgePricingEngine.version() & 0xffff) << 32
+                | (long) srcId << 16 | destId;
+        double distance = distanceKm(pricing, srcId, destId);
+        return quotes.get(key, k -> withSurge(pricing.fareFor(distance),
+                surgePricingEngine.multiplier(Zone.of(pricing.locations().nameOf(srcId)))));
+    }
+
+    private static double withSurge(double fare, double multiplier) {
+        return multiplier == 1.0 ? fare : Math.round(fare * multiplier * 100.0) / 100.0;
     }
 
     @Override
     @Transactional
     public RideResponseDto bookRide(RideRequestDto request) {
+        return book(request, null);
+    }
+
+    @Override
+    @Transactional
+    public RideResponseDto bookRide(RideRequestDto request, Long preclaimedDriverId) {
+        return book(request, preclaimedDriverId);
+    }
+
+    // preclaimedDriverId is a driver the batch dispatcher already claimed in the index for this request, or null
+    private RideResponseDto book(RideRequestDto request, Long preclaimedDriverId) {
         // ⚠️ FIXED: Removed driverId from logs
         log.info("Booking request received - User ID: {}, Route: {} to {}",
                 request.getUserId(), request.getSource(), request.getDestination());
 
-        String src = validateAndFormat(request.getSource());
-        String dest = validateAndFormat(request.getDestination());
-        
-        double totalFare = calculateFare(src, dest);
-        
-        String routeKey = (src.compareTo(dest) < 0) ? src + "-" + dest : dest + "-" + src;
-        Double distance = routeDistances.getOrDefault(routeKey, 15.0); 
+        // Drivers only ever go back to the index from rollback hooks. A driver handed over by the batch dispatcher
+        // goes back if this booking fails before trying its conditional UPDATE; once tried, either the claim
+        // registered its own hook or the row belongs to another ride and the driver must stay out of the index.
+        AtomicBoolean preclaimTried = new AtomicBoolean();
+        if (preclaimedDriverId != null) {
+            runAfterRollback(() -> {
+                if (!preclaimTried.get()) {
+                    driverAvailabilityIndex.release(preclaimedDriverId);
+                }
+            });
+        }
+
+        // One pricing version for the whole booking, even if a reload lands halfway through
+        PricingSnapshot pricing = pricingConfig.current();
+        int srcId = locationId(pricing, request.getSource());
+        int destId = locationId(pricing, request.getDestination());
+        String src = pricing.locations().nameOf(srcId);
+        String dest = pricing.locations().nameOf(destId);
+
+        double distance = distanceKm(pricing, srcId, destId);
+        // Every attempt counts towards demand, whether or not a cab is found
+        Zone pickupZone = Zone.of(src);
+        surgePricingEngine.recordAttempt(pickupZone);
+        double surge = surgePricingEngine.multiplier(pickupZone);
+        double totalFare = withSurge(pricing.fareFor(distance), surge);
 
         User user = userRepository.findById(request.getUserId())
                 .orElseThrow(() -> {
@@ -135,19 +207,14 @@ public class RideServiceImpl implements IRideService {
                     return new ResourceNotFoundException("User not found with ID: " + request.getUserId());
                 });
 
-        // ⚠️ FIXED: Auto-Assign Driver (Use findFirstByStatus instead of findById)
-        Driver driver = driverRepository.findFirstByStatus(DriverStatus.AVAILABLE)
-                .orElseThrow(() -> {
-                    log.error("Booking failed: No drivers available");
-                    return new ResourceNotFoundException("No cabs are currently available! Please try again later.");
-                });
-        
         if (rideRepository.existsByUserAndStatus(user, RideStatus.BOOKED)) {
             log.warn("Booking failed: User ID {} already has an ongoing ride", request.getUserId());
             throw new IllegalStateException("You already have an ongoing ride! Complete it before booking a new one.");
         }
-        
-        // Removed the check for driver status because we specifically fetched an AVAILABLE one above.
+
+        // Auto-Assign Driver: nearest cab to the pickup, claimed in memory first, then confirmed with a conditional UPDATE
+        Driver driver = preclaimedDriverId != null ? confirmClaim(preclaimedDriverId, src, preclaimTried) : claimDriver(src);
+        Long driverId = driver.getDriverId();
 
         // Save Ride
         Ride ride = new Ride();
@@ -160,13 +227,13 @@ public class RideServiceImpl implements IRideService {
         ride.setStartTime(LocalDateTime.now());
 
         Ride savedRide = rideRepository.save(ride);
-
-        // Lock Driver
-        driver.setStatus(DriverStatus.BUSY);
-        driverRepository.save(driver);
+        outboxWriter.rideBooked(savedRide);
+        replicaRouting.recordWrite(ReplicaRouting.user(user.getUserId()), ReplicaRouting.driver(driverId),
+                ReplicaRouting.ride(savedRide.getId()));
+        rideEventLog.recordBooked(savedRide.getId(), user.getUserId(), driverId, pickupZone, savedRide.getFare());
 
         // Combined Success Log
-        log.info("Ride booked successfully. Ride ID: {}, Distance: {}km, Fare: {}", savedRide.getId(), distance, savedRide.getFare());
+        log.info("Ride booked successfully. Ride ID: {}, Distance: {}km, Fare: {} (surge {}x)", savedRide.getId(), distance, savedRide.getFare(), surge);
 
         return mapToDto(savedRide);
     }
@@ -200,35 +267,49 @@ public class RideServiceImpl implements IRideService {
         ride.setPayment(payment);
 
         rideRepository.save(ride);
+        outboxWriter.rideEnded(ride);
 
-        // 2. Unlock Driver
+        // 2. Unlock Driver (now waiting at the drop-off point)
         Driver driver = ride.getDriver();
+        double[] dropOff = Zone.pointOf(ride.getDestination());
+        if (dropOff != null) {
+            driver.setLatitude(dropOff[0]);
+            driver.setLongitude(dropOff[1]);
+        }
         driver.setStatus(DriverStatus.AVAILABLE);
         driverRepository.save(driver);
+        replicaRouting.recordWrite(ReplicaRouting.user(ride.getUser().getUserId()),
+                ReplicaRouting.driver(driver.getDriverId()), ReplicaRouting.ride(rideId));
+        rideEventLog.recordEnded(rideId, ride.getUser().getUserId(), driver.getDriverId(), ride.getFare());
+        runAfterCommit(() -> {
+            identityCache.evictDriver(driver.getDriverId());
+            driverAvailabilityIndex.moveTo(driver.getDriverId(), driver.getLatitude(), driver.getLongitude());
+            driverAvailabilityIndex.release(driver.getDriverId());
+        });
 
         log.info("Ride ID {} completed successfully. Payment generated.", rideId); 
         return mapToDto(ride);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RideResponseDto> getMyRides(Long userId) {
+        replicaRouting.readYourWrites(ReplicaRouting.user(userId));
         // Validation with Logs
-        userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("Get Rides failed: User ID {} not found", userId);
-                    return new ResourceNotFoundException("User not found with ID: " + userId);
-                });
-
-        List<Ride> rides = rideRepository.findByUser(userRepository.getById(userId));
+        if (identityCache.user(userId).isEmpty()) {
+            log.error("Get Rides failed: User ID {} not found", userId);
+            throw new ResourceNotFoundException("User not found with ID: " + userId);
+        }
 
-        return rides.stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        return userHistory(userId);
     }
     @Override
+    @Transactional(readOnly = true)
 public RideResponseDto getActiveRideForDriver(Long driverId) {
+    // A driver polls this right after being dispatched; the replica may not have the ride yet
+    replicaRouting.readYourWrites(ReplicaRouting.driver(driverId));
     // 1. Verify driver exists
-    driverRepository.findById(driverId)
+    identityCache.driver(driverId)
             .orElseThrow(() -> new ResourceNotFoundException("Driver not found with ID: " + driverId));
 
     // 2. Fetch the active ride from the custom query
@@ -238,7 +319,7 @@ public RideResponseDto getActiveRideForDriver(Long driverId) {
 }
 
     // --- Helpers ---
-    private RideResponseDto mapToDto(Ride ride) {
+    RideResponseDto mapToDto(Ride ride) {
     RideResponseDto dto = new RideResponseDto();
     dto.setRideId(ride.getId());
     
@@ -258,45 +339,247 @@ public RideResponseDto getActiveRideForDriver(Long driverId) {
     
 
     @Override
+    @Transactional(readOnly = true)
     public List<RideResponseDto> getDriverRideHistory(Long driverId) {
+        replicaRouting.readYourWrites(ReplicaRouting.driver(driverId));
         // 1. Verify driver exists
-        driverRepository.findById(driverId)
-                .orElseThrow(() -> new ResourceNotFoundException("Driver not found with ID: " + driverId));
+        if (identityCache.driver(driverId).isEmpty()) {
+            throw new ResourceNotFoundException("Driver not found with ID: " + driverId);
+        }
 
-        // 2. Fetch all rides for the driver
-        List<Ride> rides = rideRepository.findByDriver(driverRepository.getById(driverId));
+        // 2. Fetch all rides for the driver, already as DTOs
+        return merge(rideRepository.findHistoryByDriverId(driverId),
+                archivedRideRepository.findHistoryByDriverId(driverId), BY_ID, Integer.MAX_VALUE);
+    }
 
-        // 3. Return list of DTOs
-        return rides.stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    @Override
+    public double[] getPickupPoint(String location) {
+        PricingSnapshot pricing = pricingConfig.current();
+        return Zone.pointOf(pricing.locations().nameOf(locationId(pricing, location)));
     }
 
     @Override
     public List<String> getAvailableLocations() {
-        return routeDistances.keySet().stream()
-                .flatMap(key -> java.util.Arrays.stream(key.split("-")))
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return pricingConfig.current().locations().names();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RideResponseDto> getMyRides(String email) {
         // 1. Find User by Email (Business Logic)
-        User user = userRepository.findByEmail(email)
+        IdentityCache.CachedUser user = identityCache.userByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+
+        // 2. The user is known to exist, so go straight to the history query
+        replicaRouting.readYourWrites(ReplicaRouting.user(user.userId()));
+        return userHistory(user.userId());
+    }
+
+    private List<RideResponseDto> userHistory(Long userId) {
+        return merge(rideRepository.findHistoryByUserId(userId), archivedRideRepository.findHistoryByUserId(userId),
+                BY_ID, Integer.MAX_VALUE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RideHistoryPageDto getMyRidesPage(Long userId, String cursor, String since, int size) {
+        replicaRouting.readYourWrites(ReplicaRouting.user(userId));
+        if (identityCache.user(userId).isEmpty()) {
+            throw new ResourceNotFoundException("User not found with ID: " + userId);
+        }
+        return userPage(userId, cursor, since, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RideHistoryPageDto getMyRidesPage(String email, String cursor, String since, int size) {
+        IdentityCache.CachedUser user = identityCache.userByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+        replicaRouting.readYourWrites(ReplicaRouting.user(user.userId()));
+        return userPage(user.userId(), cursor, since, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RideHistoryPageDto getDriverRideHistoryPage(Long driverId, String cursor, String since, int size) {
+        replicaRouting.readYourWrites(ReplicaRouting.driver(driverId));
+        if (identityCache.driver(driverId).isEmpty()) {
+            throw new ResourceNotFoundException("Driver not found with ID: " + driverId);
+        }
+        return historyPage(cursor, since, size,
+                limit -> merge(rideRepository.findHistoryPageByDriverId(driverId, limit),
+                        archivedRideRepository.findHistoryPageByDriverId(driverId, limit), NEWEST_FIRST, limit.max()),
+                (at, id, limit) -> merge(rideRepository.findHistoryPageByDriverIdBefore(driverId, at, id, limit),
+                        archivedRideRepository.findHistoryPageByDriverIdBefore(driverId, at, id, limit),
+                        NEWEST_FIRST, limit.max()),
+                (at, id, upTo, limit) -> merge(rideRepository.findChangesByDriverIdAfter(driverId, at, id, upTo, limit),
+                        archivedRideRepository.findChangesByDriverIdAfter(driverId, at, id, upTo, limit),
+                        OLDEST_CHANGE_FIRST, limit.max()),
+                upTo -> latest(rideRepository.findLatestChangeByDriverId(driverId, upTo, Limit.of(1)),
+                        archivedRideRepository.findLatestChangeByDriverId(driverId, upTo, Limit.of(1))));
+    }
+
+    private RideHistoryPageDto userPage(Long userId, String cursor, String since, int size) {
+        return historyPage(cursor, since, size,
+                limit -> merge(rideRepository.findHistoryPageByUserId(userId, limit),
+                        archivedRideRepository.findHistoryPageByUserId(userId, limit), NEWEST_FIRST, limit.max()),
+                (at, id, limit) -> merge(rideRepository.findHistoryPageByUserIdBefore(userId, at, id, limit),
+                        archivedRideRepository.findHistoryPageByUserIdBefore(userId, at, id, limit),
+                        NEWEST_FIRST, limit.max()),
+                (at, id, upTo, limit) -> merge(rideRepository.findChangesByUserIdAfter(userId, at, id, upTo, limit),
+                        archivedRideRepository.findChangesByUserIdAfter(userId, at, id, upTo, limit),
+                        OLDEST_CHANGE_FIRST, limit.max()),
+                upTo -> latest(rideRepository.findLatestChangeByUserId(userId, upTo, Limit.of(1)),
+                        archivedRideRepository.findLatestChangeByUserId(userId, upTo, Limit.of(1))));
+    }
+
+    // Both tiers are queried with the same keyset and limit, so the first `limit` rows of the merge are exact.
+    // The live tier is always read first: a ride archived in between then turns up in both lists and is kept
+    // once, rather than being missed by both.
+    private static List<RideResponseDto> merge(List<RideResponseDto> live, List<RideResponseDto> archived,
+                                               Comparator<RideResponseDto> order, int limit) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        Map<Long, RideResponseDto> byId = new LinkedHashMap<>();
+        live.forEach(ride -> byId.put(ride.getRideId(), ride));
+        archived.forEach(ride -> byId.putIfAbsent(ride.getRideId(), ride));
+        return byId.values().stream().sorted(order).limit(limit).toList();
+    }
+
+    private static List<RideCursor> latest(List<RideCursor> live, List<RideCursor> archived) {
+        List<RideCursor> both = new ArrayList<>(live);
+        both.addAll(archived);
+        return both.stream()
+                .max(Comparator.comparing(RideCursor::at).thenComparing(RideCursor::id))
+                .map(List::of).orElse(List.of());
+    }
+
+    private interface PageAfter {
+        List<RideResponseDto> find(LocalDateTime at, Long id, Limit limit);
+    }
+
+    private interface ChangesAfter {
+        List<RideResponseDto> find(LocalDateTime at, Long id, LocalDateTime upTo, Limit limit);
+    }
+
+    // Every page query asks for one row more than it returns, to know whether another page exists
+    private RideHistoryPageDto historyPage(String cursor, String since, int size,
+                                           Function<Limit, List<RideResponseDto>> firstPage, PageAfter pageAfter,
+                                           ChangesAfter changesAfter, Function<LocalDateTime, List<RideCursor>> latestChange) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (cursor != null && since != null) {
+            throw new IllegalArgumentException("Use either cursor or since, not both");
+        }
+        LocalDateTime upTo = LocalDateTime.now().minusNanos(changeFeedLagMs * 1_000_000);
+
+        if (since != null) {
+            RideCursor from = RideCursor.decode(since);
+            List<RideResponseDto> changes = changesAfter.find(from.at(), from.id(), upTo, Limit.of(size));
+            // A full page means more changes may be waiting; the client just polls again with the new cursor
+            String changesCursor = changes.isEmpty() ? since : RideCursor.of(changes.get(changes.size() - 1), true).encode();
+            return new RideHistoryPageDto(changes, null, changesCursor);
+        }
+
+        List<RideResponseDto> rides;
+        if (cursor == null) {
+            rides = firstPage.apply(Limit.of(size + 1));
+        } else {
+            RideCursor after = RideCursor.decode(cursor);
+            rides = pageAfter.find(after.at(), after.id(), Limit.of(size + 1));
+        }
+        String nextCursor = null;
+        if (rides.size() > size) {
+            rides = rides.subList(0, size);
+            nextCursor = RideCursor.of(rides.get(size - 1), false).encode();
+        }
+        // The starting point for change polling is only handed out with the first page
+        String changesCursor = cursor != null ? null
+                : latestChange.apply(upTo).stream().findFirst().orElse(NO_CHANGES).encode();
+        return new RideHistoryPageDto(rides, nextCursor, changesCursor);
+    }
+
+    // Claims the free driver nearest to the pickup. If the row was already taken (the index was stale), that
+    // candidate is dropped and the next one is tried, so concurrent bookings never hand out the same driver twice.
+    private Driver claimDriver(String pickup) {
+        double[] point = Zone.pointOf(pickup);
+        Long driverId;
+        while ((driverId = driverAvailabilityIndex.claimNearest(Zone.of(pickup), point[0], point[1])) != null) {
+            if (driverRepository.claimIfAvailable(driverId) == 1) {
+                Long claimedId = driverId;
+                runAfterRollback(() -> driverAvailabilityIndex.release(claimedId));
+                // Cached snapshot still says AVAILABLE
+                runAfterCommit(() -> identityCache.evictDriver(claimedId));
+                return driverRepository.findById(claimedId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Driver not found with ID: " + claimedId));
+            }
+            log.warn("Driver ID {} was no longer available in the database, trying the next candidate", driverId);
+        }
+        log.error("Booking failed: No drivers available");
+        surgePricingEngine.recordFailure(Zone.of(pickup));
+        throw new ResourceNotFoundException("No cabs are currently available! Please try again later.");
+    }
 
-        // 2. Reuse existing logic to get rides
-        return getMyRides(user.getUserId());
+    // Confirms a driver the batch dispatcher already claimed in memory. If the row turns out to be taken,
+    // the booking falls back to the normal nearest-driver claim. tried is set once the UPDATE has run.
+    private Driver confirmClaim(Long driverId, String pickup, AtomicBoolean tried) {
+        int claimed = driverRepository.claimIfAvailable(driverId);
+        tried.set(true);
+        if (claimed == 1) {
+            runAfterRollback(() -> driverAvailabilityIndex.release(driverId));
+            runAfterCommit(() -> identityCache.evictDriver(driverId));
+            return driverRepository.findById(driverId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Driver not found with ID: " + driverId));
+        }
+        log.warn("Batch-assigned driver ID {} was no longer available in the database, falling back", driverId);
+        return claimDriver(pickup);
     }
 
-    private String validateAndFormat(String input) {
-        List<String> validLocations = getAvailableLocations();
-        return validLocations.stream()
-                .filter(loc -> loc.equalsIgnoreCase(input))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Invalid Location: " + input));
+    // Index updates must not get ahead of the database, so they wait for the commit when there is one
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Undoes an index claim if the booking transaction does not commit. Bookings always run in one, so this is
+    // the only place a failed booking hands drivers back
+    private void runAfterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private static int locationId(PricingSnapshot pricing, String input) {
+        int id = pricing.locations().idOf(input);
+        if (id < 0) {
+            throw new IllegalArgumentException("Invalid Location: " + input);
+        }
+        return id;
+    }
+
+    private static double distanceKm(PricingSnapshot pricing, int srcId, int destId) {
+        if (srcId == destId) {
+            throw new IllegalArgumentException("Pickup and Drop location cannot be the same.");
+        }
+        return pricing.distanceKm(srcId, destId);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.example.cabify.service;
+
+import com.example.cabify.util.GeoGridIndex;
+import com.example.cabify.util.RoadGraph;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Road distances from the memory-mapped graph named by cabify.routing.graph-file. When no file is configured
+ * the engine stays unloaded and fares keep using the built-in route table.
+ *
+ * Points are snapped to the nearest node through a grid built once at load, and only within
+ * cabify.routing.snap-radius-km of one. A search that settles more than cabify.routing.max-settled-nodes nodes
+ * gives up and counts as no route, which bounds the work an unreachable pair can cause.
+ */
+@Component
+@Slf4j
+public class RoutingEngine {
+
+    // About 550 m; with the default snap radius a lookup reads at most a few rings of cells
+    private static final double SNAP_CELL_DEGREES = 0.005;
+
+    @Value("${cabify.routing.graph-file:}")
+    private String graphFile;
+
+    @Value("${cabify.routing.snap-radius-km:0.5}")
+    private double snapRadiusKm;
+
+    @Value("${cabify.routing.max-settled-nodes:200000}")
+    private int maxSettledNodes;
+
+    private RoadGraph graph;
+    private GeoGridIndex nodes;
+
+    @PostConstruct
+    public void load() {
+        if (graphFile == null || graphFile.isBlank()) {
+            return;
+        }
+        try {
+            long started = System.nanoTime();
+            graph = RoadGraph.open(Path.of(graphFile));
+            nodes = new GeoGridIndex(SNAP_CELL_DEGREES, snapRadiusKm);
+            for (int n = 0; n < graph.nodeCount(); n++) {
+                nodes.put(n, graph.latitude(n), graph.longitude(n));
+            }
+            log.info("Road graph {} mapped: {} nodes, {} edges in {} ms", graphFile, graph.nodeCount(),
+                    graph.edgeCount(), (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map road graph " + graphFile, e);
+        }
+    }
+
+    public boolean isLoaded() {
+        return graph != null;
+    }
+
+    /**
+     * Shortest road distance in km between the graph nodes nearest to two points, or POSITIVE_INFINITY when
+     * the road network doesn't connect them within the search limit. Throws IllegalArgumentException for
+     * coordinates that aren't valid or aren't near any road.
+     */
+    public double distanceKm(double[] from, double[] to) {
+        if (graph == null) {
+            throw new IllegalStateException("No road graph loaded");
+        }
+        return graph.distanceKm(snap(from), snap(to), maxSettledNodes);
+    }
+
+    private int snap(double[] point) {
+        double latitude = point[0];
+        double longitude = point[1];
+        if (!(latitude >= -90.0 && latitude <= 90.0 && longitude >= -180.0 && longitude <= 180.0)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        List<GeoGridIndex.Hit> hits = nodes.nearest(latitude, longitude, 1, id -> true);
+        // The grid can return a node from a corner of its last ring that is still outside the radius
+        if (hits.isEmpty() || hits.get(0).distanceKm() > snapRadiusKm) {
+            throw new IllegalArgumentException("No road within " + snapRadiusKm + " km of " + latitude + ", " + longitude);
+        }
+        return (int) hits.get(0).id();
+    }
+}
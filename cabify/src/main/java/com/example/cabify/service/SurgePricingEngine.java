@@ -0,0 +1,117 @@
+package com.example.cabify.service;
+
+import com.example.cabify.model.Zone;
+import com.example.cabify.util.SlidingWindowCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-zone surge multiplier from recent supply and demand.
+ *
+ * Bookings record an attempt (and a failure when no cab could be found) in lock-free sliding-window counters of
+ * their pickup zone, and a scheduled task samples how many drivers each zone has free. The same task turns the
+ * last five minutes of those numbers into a multiplier and publishes it in a volatile field, so reading the
+ * multiplier on the fare path is one array read.
+ *
+ * The multiplier rises as soon as the numbers call for it, but only falls one step per recompute so a zone
+ * doesn't flap between prices.
+ */
+@Component
+@Slf4j
+public class SurgePricingEngine {
+
+    // 30 x 10 s = a five minute window
+    private static final int WINDOW_BUCKETS = 30;
+    private static final long BUCKET_MILLIS = 10_000;
+    // Below this many attempts in the window the zone is too quiet to judge
+    private static final int MIN_ATTEMPTS = 10;
+    private static final double STEP = 0.1;
+
+    @Autowired
+    private DriverAvailabilityIndex driverAvailabilityIndex;
+
+    @Value("${cabify.surge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cabify.surge.max-multiplier:2.5}")
+    private double maxMultiplier;
+
+    private final ZoneState[] states;
+    // Bumped whenever any zone's multiplier changes, so cached quotes from before are never served again
+    private final AtomicLong version = new AtomicLong();
+
+    private static final class ZoneState {
+        private final SlidingWindowCounter attempts = new SlidingWindowCounter(WINDOW_BUCKETS, BUCKET_MILLIS);
+        private final SlidingWindowCounter failures = new SlidingWindowCounter(WINDOW_BUCKETS, BUCKET_MILLIS);
+        // Sum and number of available-driver samples, for the average supply over the window
+        private final SlidingWindowCounter supply = new SlidingWindowCounter(WINDOW_BUCKETS, BUCKET_MILLIS);
+        private final SlidingWindowCounter samples = new SlidingWindowCounter(WINDOW_BUCKETS, BUCKET_MILLIS);
+        private volatile double multiplier = 1.0;
+    }
+
+    public SurgePricingEngine() {
+        Zone[] zones = Zone.values();
+        states = new ZoneState[zones.length];
+        for (Zone zone : zones) {
+            states[zone.ordinal()] = new ZoneState();
+        }
+    }
+
+    // Current multiplier for pickups in the zone; 1.0 means no surge
+    public double multiplier(Zone zone) {
+        return states[zone.ordinal()].multiplier;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public void recordAttempt(Zone zone) {
+        states[zone.ordinal()].attempts.increment(System.currentTimeMillis());
+    }
+
+    public void recordFailure(Zone zone) {
+        states[zone.ordinal()].failures.increment(System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${cabify.surge.recompute-ms:5000}")
+    public void recompute() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Zone zone : Zone.values()) {
+            ZoneState state = states[zone.ordinal()];
+            state.supply.add(now, driverAvailabilityIndex.availableCount(zone));
+            state.samples.increment(now);
+
+            double averageSupply = (double) state.supply.sum(now) / Math.max(1, state.samples.sum(now));
+            double target = targetMultiplier(state.attempts.sum(now), state.failures.sum(now), averageSupply, maxMultiplier);
+            double previous = state.multiplier;
+            double next = target >= previous ? target : Math.max(target, Math.round((previous - STEP) * 10.0) / 10.0);
+            if (next != previous) {
+                state.multiplier = next;
+                version.incrementAndGet();
+                log.info("Surge in zone {} moved from {}x to {}x", zone, previous, next);
+            }
+        }
+    }
+
+    /**
+     * 1.0 while there are no more booking attempts than free cabs, then +0.25 for every extra attempt per cab,
+     * plus up to +1.0 as the share of failed bookings approaches 100%. Rounded down to a 0.1 step and capped.
+     */
+    static double targetMultiplier(long attempts, long failures, double averageSupply, double maxMultiplier) {
+        if (attempts < MIN_ATTEMPTS) {
+            return 1.0;
+        }
+        double demandPerCab = attempts / Math.max(1.0, averageSupply);
+        double raw = 1.0 + 0.25 * Math.max(0.0, demandPerCab - 1.0) + (double) failures / attempts;
+        return Math.min(maxMultiplier, Math.floor(raw * 10.0 + 1e-9) / 10.0);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.cabify.service;
+
+import com.example.cabify.util.JwtPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens revoked before their expiry (logout), by token id. Requests authenticate from the token's claims alone,
+ * so this is the only thing that can turn a still-valid token away.
+ *
+ * Each entry lives exactly as long as the token it blocks, since an expired token is rejected anyway; the list
+ * stays as small as the number of logouts in one token lifetime. Nothing is evicted early, since that would
+ * reinstate a token. The list is in memory and per instance: with several instances behind a load balancer a
+ * revocation only holds on the instance that received it.
+ */
+@Component
+public class TokenDenyList {
+
+    private final Cache<String, Long> revoked = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, Long>() {
+                @Override
+                public long expireAfterCreate(String tokenId, Long expiresAtMillis, long currentTime) {
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiresAtMillis - System.currentTimeMillis()));
+                }
+
+                @Override
+                public long expireAfterUpdate(String tokenId, Long expiresAtMillis, long currentTime, long currentDuration) {
+                    return expireAfterCreate(tokenId, expiresAtMillis, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String tokenId, Long expiresAtMillis, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    public void revoke(JwtPrincipal principal) {
+        if (principal.tokenId() == null) {
+            throw new IllegalArgumentException("Token has no id to revoke");
+        }
+        revoked.put(principal.tokenId(), principal.expiresAt().getTime());
+    }
+
+    public boolean isRevoked(JwtPrincipal principal) {
+        return principal.tokenId() != null && revoked.getIfPresent(principal.tokenId()) != null;
+    }
+}
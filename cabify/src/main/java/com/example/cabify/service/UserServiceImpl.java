@@ -5,8 +5,8 @@ import com.example.cabify.dto.user.UserProfileDto;
 import com.example.cabify.model.User;
 import com.example.cabify.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -20,7 +20,10 @@ public class UserServiceImpl implements IUserService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private IdentityCache identityCache;
 
     @Override
     public UserProfileDto registerUser(User user) {
@@ -55,11 +58,12 @@ public class UserServiceImpl implements IUserService {
             throw new IllegalStateException("This phone number is already registered!");
         }
 
-        user.setPassword(passwordEncoder.encode(password));
+        user.setPassword(passwordHashingService.encode(password));
         user.setName(name);
         user.setEmail(email);
 
         User savedUser = userRepository.save(user);
+        identityCache.evictUser(savedUser.getUserId(), savedUser.getEmail());
         log.info("User registered successfully with ID: {}", savedUser.getUserId());
         return mapToDto(savedUser);
     }
@@ -67,20 +71,23 @@ public class UserServiceImpl implements IUserService {
     @Override
     public UserProfileDto getUserById(long id) {
         log.info("Fetching user details for ID: {}", id);
-        User user = userRepository.findById(id)
+        IdentityCache.CachedUser user = identityCache.user(id)
                 .orElseThrow(() -> {
                     log.error("User not found with ID: {}", id);
                     return new NoSuchElementException("User not found with ID: " + id);
                 });
-        return mapToDto(user);
+        return new UserProfileDto(user.userId(), user.name(), user.email(), user.phone());
     }
 
     @Override
     public UserProfileDto userLogin(LoginRequestDto loginRequestDto) {
-        User user = userRepository.findByEmail(loginRequestDto.getEmail())
-                .orElseThrow(() -> new NoSuchElementException("User not found"));
+        User user = userRepository.findByEmail(loginRequestDto.getEmail()).orElse(null);
+        if (user == null) {
+            passwordHashingService.matchesUnknownAccount(loginRequestDto.getPassword());
+            throw new NoSuchElementException("User not found");
+        }
 
-        if (!passwordEncoder.matches(loginRequestDto.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(loginRequestDto.getPassword(), user.getPassword())) {
             throw new IllegalArgumentException("Invalid email or password");
         }
 
@@ -88,6 +95,7 @@ public class UserServiceImpl implements IUserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserProfileDto> getAllUsers() {
         List<User> users = userRepository.findAll();
         if (users.isEmpty()) {
@@ -98,7 +106,7 @@ public class UserServiceImpl implements IUserService {
                 .collect(Collectors.toList());
     }
 
-    private UserProfileDto mapToDto(User user) {
+    UserProfileDto mapToDto(User user) {
         return new UserProfileDto(
                 user.getUserId(),
                 user.getName(),
@@ -0,0 +1,88 @@
+package com.example.cabify.service;
+
+import com.example.cabify.util.JwtPrincipal;
+import com.example.cabify.util.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens that already passed JwtUtil.validate, so a client sending the same token on every request pays for one
+ * SHA-256 instead of an HMAC check plus claims decoding each time.
+ *
+ * Keyed by the SHA-256 of the token, so the cache holds no usable bearer tokens and every key is 32 bytes. An entry
+ * expires when its token does, and invalid tokens are never cached. Revocation is still checked on every request
+ * (TokenDenyList), so caching a token never outlives its logout. Caffeine keeps it bounded and lock-free on reads;
+ * hit and miss counts are published as cache.gets metrics for cache "auth.tokens".
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final int MAX_TOKENS = 200_000;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final JwtUtil jwtUtil;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final Cache<ByteBuffer, JwtPrincipal> principals = Caffeine.newBuilder()
+            .maximumSize(MAX_TOKENS)
+            .expireAfter(new Expiry<ByteBuffer, JwtPrincipal>() {
+                @Override
+                public long expireAfterCreate(ByteBuffer digest, JwtPrincipal principal, long currentTime) {
+                    long remaining = principal.expiresAt().getTime() - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+                }
+
+                @Override
+                public long expireAfterUpdate(ByteBuffer digest, JwtPrincipal principal, long currentTime, long currentDuration) {
+                    return expireAfterCreate(digest, principal, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(ByteBuffer digest, JwtPrincipal principal, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+
+    public VerifiedTokenCache(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    @PostConstruct
+    public void bindMetrics() {
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, principals, "auth.tokens");
+        }
+    }
+
+    // Same contract as JwtUtil.validate: the principal, or a JwtException / IllegalArgumentException
+    public JwtPrincipal validate(String token) {
+        return principals.get(digest(token), key -> jwtUtil.validate(token));
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+}
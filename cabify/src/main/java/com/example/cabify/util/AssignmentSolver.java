@@ -0,0 +1,104 @@
+package com.example.cabify.util;
+
+import java.util.Arrays;
+
+/**
+ * Min-cost assignment (Hungarian algorithm, O(n^2 * m)) over a rectangular cost matrix.
+ *
+ * Rows are riders and columns are drivers. Every row gets its own column when there are at least as many
+ * columns as rows; otherwise only as many rows as there are columns are matched.
+ */
+public final class AssignmentSolver {
+
+    private AssignmentSolver() {
+    }
+
+    /**
+     * Returns, for each row, the index of the column it was matched to, or -1 if it got none.
+     */
+    public static int[] solve(double[][] cost) {
+        int rows = cost.length;
+        if (rows == 0) {
+            return new int[0];
+        }
+        int cols = cost[0].length;
+        if (cols == 0) {
+            int[] none = new int[rows];
+            Arrays.fill(none, -1);
+            return none;
+        }
+        if (rows > cols) {
+            // Solve the transposed problem and flip the answer back
+            double[][] transposed = new double[cols][rows];
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    transposed[j][i] = cost[i][j];
+                }
+            }
+            int[] colToRow = solve(transposed);
+            int[] rowToCol = new int[rows];
+            Arrays.fill(rowToCol, -1);
+            for (int j = 0; j < cols; j++) {
+                rowToCol[colToRow[j]] = j;
+            }
+            return rowToCol;
+        }
+
+        // Potentials u (rows) and v (cols), 1-based with a dummy column 0
+        double[] u = new double[rows + 1];
+        double[] v = new double[cols + 1];
+        int[] matchedRow = new int[cols + 1];
+        int[] way = new int[cols + 1];
+        double[] minv = new double[cols + 1];
+        boolean[] used = new boolean[cols + 1];
+
+        for (int i = 1; i <= rows; i++) {
+            matchedRow[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = matchedRow[j0];
+                int j1 = 0;
+                double delta = Double.POSITIVE_INFINITY;
+                for (int j = 1; j <= cols; j++) {
+                    if (!used[j]) {
+                        double current = cost[i0 - 1][j - 1] - u[i0] - v[j];
+                        if (current < minv[j]) {
+                            minv[j] = current;
+                            way[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= cols; j++) {
+                    if (used[j]) {
+                        u[matchedRow[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (matchedRow[j0] != 0);
+            do {
+                int j1 = way[j0];
+                matchedRow[j0] = matchedRow[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] assignment = new int[rows];
+        Arrays.fill(assignment, -1);
+        for (int j = 1; j <= cols; j++) {
+            if (matchedRow[j] != 0) {
+                assignment[matchedRow[j] - 1] = j - 1;
+            }
+        }
+        return assignment;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.cabify.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable all-pairs shortest distances between locations, stored as one flat row-major double[] indexed by
+ * the dense location ids of a {@link LocationDictionary}. A lookup is a single array read.
+ */
+public final class DistanceMatrix {
+
+    private final int size;
+    private final double[] distances;
+
+    // Undirected road segment between two location ids
+    public record Edge(int from, int to, double km) {
+    }
+
+    // Distance between two location ids, used to fill a matrix from an outside source
+    @FunctionalInterface
+    public interface PairDistance {
+        double km(int from, int to);
+    }
+
+    private DistanceMatrix(int size, double[] distances) {
+        this.size = size;
+        this.distances = distances;
+    }
+
+    /**
+     * Runs Floyd-Warshall over the given edges. Pairs with no connecting path stay at POSITIVE_INFINITY.
+     */
+    public static DistanceMatrix allPairsShortest(int size, List<Edge> edges) {
+        double[] d = new double[size * size];
+        Arrays.fill(d, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < size; i++) {
+            d[i * size + i] = 0.0;
+        }
+        for (Edge edge : edges) {
+            double km = Math.min(d[edge.from() * size + edge.to()], edge.km());
+            d[edge.from() * size + edge.to()] = km;
+            d[edge.to() * size + edge.from()] = km;
+        }
+        for (int k = 0; k < size; k++) {
+            for (int i = 0; i < size; i++) {
+                double ik = d[i * size + k];
+                if (ik == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int j = 0; j < size; j++) {
+                    double viaK = ik + d[k * size + j];
+                    if (viaK < d[i * size + j]) {
+                        d[i * size + j] = viaK;
+                    }
+                }
+            }
+        }
+        return new DistanceMatrix(size, d);
+    }
+
+    /**
+     * Fills the matrix by asking for every ordered pair once. The diagonal is always 0.
+     */
+    public static DistanceMatrix of(int size, PairDistance source) {
+        double[] d = new double[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                d[i * size + j] = i == j ? 0.0 : source.km(i, j);
+            }
+        }
+        return new DistanceMatrix(size, d);
+    }
+
+    public double distance(int from, int to) {
+        return distances[from * size + to];
+    }
+
+    public int size() {
+        return size;
+    }
+}
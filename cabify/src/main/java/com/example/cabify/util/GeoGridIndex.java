@@ -0,0 +1,143 @@
+package com.example.cabify.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Uniform lat/lon grid over point ids, for k-nearest lookups around a pickup.
+ *
+ * Each point lives in exactly one cell. A nearest query walks rings of cells outwards from the pickup cell and
+ * stops as soon as nothing in the next ring could beat the k-th best hit, so the cost depends on how many points
+ * sit near the pickup, not on how many are in the index.
+ *
+ * Reads are safe from any thread. Writes for the same id must not race each other; callers serialize them.
+ */
+public class GeoGridIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private final double cellDegrees;
+    private final int maxRings;
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Point> points = new ConcurrentHashMap<>();
+
+    public GeoGridIndex(double cellDegrees, double maxSearchRadiusKm) {
+        this.cellDegrees = cellDegrees;
+        this.maxRings = (int) Math.ceil(maxSearchRadiusKm / (cellDegrees * KM_PER_DEGREE_LAT)) + 1;
+    }
+
+    public record Point(double latitude, double longitude) {
+    }
+
+    public record Hit(long id, double distanceKm) {
+    }
+
+    public void put(long id, double latitude, double longitude) {
+        Point point = new Point(latitude, longitude);
+        Point previous = points.put(id, point);
+        long cell = cellOf(latitude, longitude);
+        if (previous != null) {
+            long previousCell = cellOf(previous.latitude(), previous.longitude());
+            if (previousCell == cell) {
+                return;
+            }
+            removeFromCell(previousCell, id);
+        }
+        cells.compute(cell, (c, ids) -> {
+            Set<Long> members = ids != null ? ids : ConcurrentHashMap.<Long>newKeySet();
+            members.add(id);
+            return members;
+        });
+    }
+
+    public void remove(long id) {
+        Point previous = points.remove(id);
+        if (previous != null) {
+            removeFromCell(cellOf(previous.latitude(), previous.longitude()), id);
+        }
+    }
+
+    public boolean contains(long id) {
+        return points.containsKey(id);
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Up to k ids closest to the given point, nearest first. Ids rejected by the filter are skipped.
+     */
+    public List<Hit> nearest(double latitude, double longitude, int k, LongPredicate filter) {
+        int row = row(latitude);
+        int col = col(longitude);
+        // Smallest width of a cell in km around this latitude; bounds how close the next ring can be
+        double cellKm = cellDegrees * KM_PER_DEGREE_LAT * Math.min(1.0, Math.cos(Math.toRadians(latitude)));
+
+        List<Hit> hits = new ArrayList<>();
+        for (int ring = 0; ring <= maxRings; ring++) {
+            for (int r = row - ring; r <= row + ring; r++) {
+                for (int c = col - ring; c <= col + ring; c++) {
+                    if (Math.abs(r - row) != ring && Math.abs(c - col) != ring) {
+                        continue; // inner cells were covered by earlier rings
+                    }
+                    Set<Long> ids = cells.get(key(r, c));
+                    if (ids == null) {
+                        continue;
+                    }
+                    for (Long id : ids) {
+                        Point point = points.get(id);
+                        if (point != null && filter.test(id)) {
+                            hits.add(new Hit(id, distanceKm(latitude, longitude, point.latitude(), point.longitude())));
+                        }
+                    }
+                }
+            }
+            if (hits.size() >= k) {
+                hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+                if (hits.get(k - 1).distanceKm() <= ring * cellKm) {
+                    return new ArrayList<>(hits.subList(0, k));
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits.size() > k ? new ArrayList<>(hits.subList(0, k)) : hits;
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+
+    private void removeFromCell(long cell, long id) {
+        cells.computeIfPresent(cell, (c, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return key(row(latitude), col(longitude));
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int col(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.cabify.util;
+
+import java.security.Principal;
+import java.util.Date;
+
+/**
+ * What a verified token says about its bearer, and the principal of requests authenticated by one. getName() is
+ * the email, as it was when requests were authenticated against the database.
+ *
+ * id, role and tokenId are null for tokens issued before those claims existed.
+ */
+public record JwtPrincipal(String subject, Long id, Role role, String tokenId, Date expiresAt) implements Principal {
+
+    public enum Role {
+        RIDER, DRIVER
+    }
+
+    // Whether the token carries everything needed to authenticate without a database lookup
+    public boolean isSelfContained() {
+        return id != null && role != null && tokenId != null;
+    }
+
+    // For endpoints that take the caller's own id in the path: anyone else gets a 403. Tokens without an id claim
+    // (a null principal here) can't show whose they are, so they are refused too until the client signs in again
+    public static void requireSelf(JwtPrincipal principal, Long id) {
+        if (principal == null || principal.id() == null || !principal.id().equals(id)) {
+            throw new SecurityException("Unauthorized: this belongs to another account.");
+        }
+    }
+
+    @Override
+    public String getName() {
+        return subject;
+    }
+}
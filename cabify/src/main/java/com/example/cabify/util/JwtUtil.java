@@ -1,65 +1,77 @@
 package com.example.cabify.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
+    private static final String ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+
     private final SecretKey signInKey ;
 
-    public static final long EXPIRATION_TIME = 1000 * 60 * 60 * 10; // 10 hours
+    // Immutable and thread-safe, so one parser serves every request
+    private final JwtParser parser;
+
+    // Short, since clients renew with a refresh token instead of logging in again
+    public static final long DEFAULT_ACCESS_TOKEN_MS = 1000 * 60 * 15; // 15 minutes
+
+    private final long accessTokenMs;
+
+    public JwtUtil(String secretString) {
+        this(secretString, DEFAULT_ACCESS_TOKEN_MS);
+    }
 
-    public JwtUtil(@Value("${jwt.secret}") String secretString) {
+    @Autowired
+    public JwtUtil(@Value("${jwt.secret}") String secretString,
+                   @Value("${jwt.access-token-ms:" + DEFAULT_ACCESS_TOKEN_MS + "}") long accessTokenMs) {
         // The byte array conversion and SecretKey generation now happen upon Bean instantiation
         this.signInKey = Keys.hmacShaKeyFor(secretString.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        this.accessTokenMs = accessTokenMs;
     }
 
-    public String generateToken(String userName) {
+    public long getAccessTokenMs() {
+        return accessTokenMs;
+    }
+
+    // id is the user or driver id, depending on role; the token id (jti) is what logout revokes
+    public String generateToken(String userName, Long id, JwtPrincipal.Role role) {
         return Jwts.builder()
                 .setSubject(userName)
+                .setId(UUID.randomUUID().toString())
+                .claim(ID_CLAIM, id)
+                .claim(ROLE_CLAIM, role.name())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .setExpiration(new Date(System.currentTimeMillis() + accessTokenMs))
                 .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean validateToken(String token, String userName) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(userName) && !isTokenExpired(token));
-    }
-
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signInKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Parses the token and checks its signature and expiry, once, returning what it claims.
+     * Throws JwtException (expired, bad signature, malformed) or IllegalArgumentException (blank) when it isn't valid.
+     */
+    public JwtPrincipal validate(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            throw new JwtException("Token has no subject or expiry");
+        }
+        String role = claims.get(ROLE_CLAIM, String.class);
+        return new JwtPrincipal(claims.getSubject(), claims.get(ID_CLAIM, Long.class),
+                role == null ? null : JwtPrincipal.Role.valueOf(role), claims.getId(), claims.getExpiration());
     }
-}
\ No newline at end of file
+}
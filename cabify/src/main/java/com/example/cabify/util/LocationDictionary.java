@@ -0,0 +1,55 @@
+package com.example.cabify.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Immutable, case-insensitive dictionary of location names. Each name gets a dense id (0..size-1) in
+ * alphabetical order, and lookups are a single hash probe on the case-folded input.
+ */
+public final class LocationDictionary {
+
+    private final List<String> names;
+    private final Map<String, Integer> idByFoldedName;
+
+    public LocationDictionary(Collection<String> locations) {
+        this.names = List.copyOf(new TreeSet<>(locations));
+        Map<String, Integer> ids = new HashMap<>();
+        for (int id = 0; id < names.size(); id++) {
+            ids.put(fold(names.get(id)), id);
+        }
+        this.idByFoldedName = Map.copyOf(ids);
+    }
+
+    /**
+     * Dense id of the location, or -1 if the name is unknown (any casing accepted).
+     */
+    public int idOf(String input) {
+        if (input == null) {
+            return -1;
+        }
+        Integer id = idByFoldedName.get(fold(input));
+        return id != null ? id : -1;
+    }
+
+    public String nameOf(int id) {
+        return names.get(id);
+    }
+
+    // Sorted canonical names, immutable
+    public List<String> names() {
+        return names;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
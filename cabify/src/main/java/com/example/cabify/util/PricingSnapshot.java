@@ -0,0 +1,81 @@
+package com.example.cabify.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One immutable version of the pricing setup: the known locations, the distances between them and the per-km
+ * rate slabs. A request reads the current snapshot once and prices everything from it, so it can never mix two
+ * versions.
+ */
+public final class PricingSnapshot {
+
+    private final long version;
+    private final LocationDictionary locations;
+    private final DistanceMatrix distances;
+    private final double unreachableKm;
+    // Slabs sorted by threshold, highest first; a distance above slabAboveKm[i] pays slabRate[i]
+    private final double[] slabAboveKm;
+    private final double[] slabRate;
+
+    // "Above this many km, charge this rate"
+    public record Slab(double aboveKm, double ratePerKm) {
+    }
+
+    public PricingSnapshot(long version, LocationDictionary locations, DistanceMatrix distances, List<Slab> slabs,
+                           double unreachableKm) {
+        if (slabs == null || slabs.isEmpty()) {
+            throw new IllegalArgumentException("At least one rate slab is required");
+        }
+        if (distances.size() != locations.size()) {
+            throw new IllegalArgumentException("Distance matrix does not match the location list");
+        }
+        List<Slab> sorted = slabs.stream().sorted(Comparator.comparingDouble(Slab::aboveKm).reversed()).toList();
+        this.slabAboveKm = new double[sorted.size()];
+        this.slabRate = new double[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i).ratePerKm() <= 0) {
+                throw new IllegalArgumentException("Rate per km must be positive: " + sorted.get(i));
+            }
+            slabAboveKm[i] = sorted.get(i).aboveKm();
+            slabRate[i] = sorted.get(i).ratePerKm();
+        }
+        this.version = version;
+        this.locations = locations;
+        this.distances = distances;
+        this.unreachableKm = unreachableKm;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public LocationDictionary locations() {
+        return locations;
+    }
+
+    // Shortest distance between two location ids; pairs with no path at all get the configured fallback
+    public double distanceKm(int from, int to) {
+        double distance = distances.distance(from, to);
+        return distance == Double.POSITIVE_INFINITY ? unreachableKm : distance;
+    }
+
+    // Whole trip at the rate of the highest slab it is above; anything below every threshold uses the lowest slab
+    public double fareFor(double distance) {
+        double ratePerKm = slabRate[slabRate.length - 1];
+        for (int i = 0; i < slabAboveKm.length; i++) {
+            if (distance > slabAboveKm[i]) {
+                ratePerKm = slabRate[i];
+                break;
+            }
+        }
+        return Math.round((distance * ratePerKm) * 100.0) / 100.0;
+    }
+
+    @Override
+    public String toString() {
+        return "PricingSnapshot{version=" + version + ", locations=" + locations.size()
+                + ", slabs=" + Arrays.toString(slabAboveKm) + "}";
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.cabify.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of ride lifecycle events in memory-mapped segment files.
+ *
+ * Every event is one fixed 48-byte record, so an event's position is just its sequence number: segment
+ * {@code seq / eventsPerSegment}, slot {@code seq % eventsPerSegment}. Segments are pre-sized files named
+ * {@code events-<segment>.seg}; the next one is created when the current one is full. Record layout, big-endian:
+ * <pre>
+ *   byte   type (written last; 0 = slot not written yet)
+ *   byte   pickup zone ordinal, or -1
+ *   6      unused
+ *   long   timestamp (epoch millis)
+ *   long   ride id
+ *   long   user id
+ *   long   driver id
+ *   double value (fare, amount paid or rating score, depending on type)
+ * </pre>
+ * The type byte goes in after the rest of the record, so a record cut short by a crash reads as unwritten and
+ * the log reopens at that slot. Writes reach the OS page cache immediately; {@link #force()} flushes them to disk.
+ *
+ * Appends are serialized by the caller (see RideEventLog); replay can run alongside, up to the position it was given.
+ */
+public final class RideEventJournal implements Closeable {
+
+    public static final int RECORD_BYTES = 48;
+    public static final int DEFAULT_EVENTS_PER_SEGMENT = 1 << 20; // 48 MB segments
+
+    public enum Type {
+        RIDE_BOOKED, RIDE_ENDED, PAYMENT_MADE, RATING_SUBMITTED;
+
+        private static final Type[] VALUES = values();
+
+        byte code() {
+            return (byte) (ordinal() + 1);
+        }
+
+        static Type of(byte code) {
+            return VALUES[code - 1];
+        }
+    }
+
+    public record Event(Type type, long timestamp, long rideId, long userId, long driverId, int zone, double value) {
+    }
+
+    private final Path dir;
+    private final int eventsPerSegment;
+    private MappedByteBuffer current;
+    private long currentSegment = -1;
+    private long nextSeq;
+
+    private RideEventJournal(Path dir, int eventsPerSegment) {
+        this.dir = dir;
+        this.eventsPerSegment = eventsPerSegment;
+    }
+
+    public static RideEventJournal open(Path dir) throws IOException {
+        return open(dir, DEFAULT_EVENTS_PER_SEGMENT);
+    }
+
+    /**
+     * Opens (or creates) the journal in dir and positions it after the last complete record.
+     */
+    public static RideEventJournal open(Path dir, int eventsPerSegment) throws IOException {
+        if (eventsPerSegment < 1) {
+            throw new IllegalArgumentException("A segment needs room for at least one event");
+        }
+        Files.createDirectories(dir);
+        RideEventJournal journal = new RideEventJournal(dir, eventsPerSegment);
+        long lastSegment = -1;
+        try (var files = Files.list(dir)) {
+            lastSegment = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith("events-") && name.endsWith(".seg"))
+                    .mapToLong(name -> Long.parseLong(name.substring(7, name.length() - 4)))
+                    .max().orElse(-1);
+        }
+        if (lastSegment < 0) {
+            journal.nextSeq = 0;
+            return journal;
+        }
+        journal.map(lastSegment);
+        int slot = 0;
+        while (slot < eventsPerSegment && journal.current.get(slot * RECORD_BYTES) != 0) {
+            slot++;
+        }
+        journal.nextSeq = lastSegment * eventsPerSegment + slot;
+        return journal;
+    }
+
+    // Sequence number the next append will get, i.e. the number of events in the journal
+    public long position() {
+        return nextSeq;
+    }
+
+    public long append(Type type, long timestamp, long rideId, long userId, long driverId, int zone, double value) {
+        long seq = nextSeq;
+        long segment = seq / eventsPerSegment;
+        if (segment != currentSegment) {
+            try {
+                map(segment);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not open journal segment " + segment, e);
+            }
+        }
+        int at = (int) (seq % eventsPerSegment) * RECORD_BYTES;
+        current.put(at + 1, (byte) zone);
+        current.putLong(at + 8, timestamp);
+        current.putLong(at + 16, rideId);
+        current.putLong(at + 24, userId);
+        current.putLong(at + 32, driverId);
+        current.putDouble(at + 40, value);
+        current.put(at, type.code());
+        nextSeq = seq + 1;
+        return seq;
+    }
+
+    /**
+     * Feeds every event in [from, to) to the consumer, oldest first, reading the segments straight from the page cache.
+     */
+    public void replay(long from, long to, Consumer<Event> consumer) throws IOException {
+        long seq = from;
+        while (seq < to) {
+            long segment = seq / eventsPerSegment;
+            ByteBuffer data = mapReadOnly(segment);
+            long end = Math.min(to, (segment + 1) * eventsPerSegment);
+            for (; seq < end; seq++) {
+                int at = (int) (seq % eventsPerSegment) * RECORD_BYTES;
+                byte type = data.get(at);
+                if (type == 0) {
+                    return;
+                }
+                consumer.accept(new Event(Type.of(type), data.getLong(at + 8), data.getLong(at + 16),
+                        data.getLong(at + 24), data.getLong(at + 32), data.get(at + 1), data.getDouble(at + 40)));
+            }
+        }
+    }
+
+    public void force() {
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+        current = null;
+        currentSegment = -1;
+    }
+
+    private void map(long segment) throws IOException {
+        if (current != null) {
+            current.force();
+        }
+        try (FileChannel channel = FileChannel.open(segmentFile(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            current = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) eventsPerSegment * RECORD_BYTES);
+        }
+        currentSegment = segment;
+    }
+
+    private ByteBuffer mapReadOnly(long segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile(segment), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private Path segmentFile(long segment) {
+        return dir.resolve(String.format("events-%012d.seg", segment));
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.cabify.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read-only road graph backed by a memory-mapped file, with A* point-to-point distance queries.
+ *
+ * The file is a compressed sparse row layout, all big-endian:
+ * <pre>
+ *   int    magic ('CABG'), int version, int nodeCount, int edgeCount
+ *   double latitude, longitude      x nodeCount
+ *   int    firstEdge                x (nodeCount + 1)   edges of node n are [firstEdge[n], firstEdge[n + 1])
+ *   int    target node              x edgeCount
+ *   float  length in km             x edgeCount
+ * </pre>
+ * Nothing is copied onto the heap: lookups read straight from the mapping, so every JVM on the host that maps
+ * the same file shares one copy in the OS page cache. Edge lengths must never be shorter than the straight line
+ * between their nodes, otherwise the A* heuristic is no longer admissible.
+ *
+ * Queries are safe from any thread; each thread keeps its own search scratch space.
+ */
+public final class RoadGraph {
+
+    private static final int MAGIC = 0x43414247; // "CABG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private final ByteBuffer data;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final int coordinatesAt;
+    private final int firstEdgeAt;
+    private final int targetsAt;
+    private final int lengthsAt;
+
+    private final ThreadLocal<Search> searches;
+
+    private RoadGraph(ByteBuffer data) {
+        if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a road graph file (bad magic or version)");
+        }
+        this.data = data;
+        this.nodeCount = data.getInt(8);
+        this.edgeCount = data.getInt(12);
+        this.coordinatesAt = HEADER_BYTES;
+        this.firstEdgeAt = coordinatesAt + nodeCount * 16;
+        this.targetsAt = firstEdgeAt + (nodeCount + 1) * 4;
+        this.lengthsAt = targetsAt + edgeCount * 4;
+        if ((long) lengthsAt + edgeCount * 4L != data.capacity()) {
+            throw new IllegalArgumentException("Road graph file is truncated or has trailing bytes");
+        }
+        this.searches = ThreadLocal.withInitial(() -> new Search(nodeCount));
+    }
+
+    /**
+     * Maps a graph file read-only. The mapping stays valid after the channel is closed.
+     */
+    public static RoadGraph open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Road graph file is larger than 2 GB: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new RoadGraph(mapped);
+        }
+    }
+
+    /**
+     * Writes a graph in the layout above. firstEdge has nodeCount + 1 entries; targets and lengths are edgeCount long.
+     */
+    public static void write(Path file, double[] latitudes, double[] longitudes, int[] firstEdge, int[] targets,
+                             float[] lengths) throws IOException {
+        int nodes = latitudes.length;
+        int edges = targets.length;
+        if (longitudes.length != nodes || firstEdge.length != nodes + 1 || lengths.length != edges
+                || firstEdge[nodes] != edges) {
+            throw new IllegalArgumentException("Inconsistent road graph arrays");
+        }
+        long size = HEADER_BYTES + nodes * 16L + (nodes + 1) * 4L + edges * 8L;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Road graph would be larger than 2 GB");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(MAGIC).putInt(VERSION).putInt(nodes).putInt(edges);
+            for (int n = 0; n < nodes; n++) {
+                out.putDouble(latitudes[n]).putDouble(longitudes[n]);
+            }
+            for (int offset : firstEdge) {
+                out.putInt(offset);
+            }
+            for (int target : targets) {
+                out.putInt(target);
+            }
+            for (float length : lengths) {
+                out.putFloat(length);
+            }
+            out.force();
+        }
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    public double latitude(int node) {
+        return data.getDouble(coordinatesAt + node * 16);
+    }
+
+    public double longitude(int node) {
+        return data.getDouble(coordinatesAt + node * 16 + 8);
+    }
+
+    // Node closest to a point. A full scan, so meant for tests and one-off tools; RoutingEngine snaps through a grid
+    public int nearestNode(double latitude, double longitude) {
+        int nearest = -1;
+        double best = Double.MAX_VALUE;
+        for (int n = 0; n < nodeCount; n++) {
+            double distance = GeoGridIndex.distanceKm(latitude, longitude, latitude(n), longitude(n));
+            if (distance < best) {
+                best = distance;
+                nearest = n;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Length in km of the shortest path between two nodes, or POSITIVE_INFINITY if there is none.
+     */
+    public double distanceKm(int source, int target) {
+        return distanceKm(source, target, Integer.MAX_VALUE);
+    }
+
+    /**
+     * As above, but gives up with POSITIVE_INFINITY once maxSettled nodes have been settled without reaching the
+     * target, so a pair in two disconnected parts of the graph can't walk the whole of one of them.
+     */
+    public double distanceKm(int source, int target, int maxSettled) {
+        if (source == target) {
+            return 0.0;
+        }
+        double targetLat = latitude(target);
+        double targetLon = longitude(target);
+        Search search = searches.get();
+        search.start();
+        search.reach(source, 0.0, GeoGridIndex.distanceKm(latitude(source), longitude(source), targetLat, targetLon));
+        int settled = 0;
+
+        while (!search.heap.isEmpty()) {
+            int node = search.heap.pop();
+            if (node == target) {
+                return search.distance(node);
+            }
+            if (!search.settle(node)) {
+                continue; // stale heap entry, the node was settled through a shorter path already
+            }
+            if (++settled > maxSettled) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double soFar = search.distance(node);
+            int end = data.getInt(firstEdgeAt + (node + 1) * 4);
+            for (int e = data.getInt(firstEdgeAt + node * 4); e < end; e++) {
+                int next = data.getInt(targetsAt + e * 4);
+                double viaNode = soFar + data.getFloat(lengthsAt + e * 4);
+                if (viaNode < search.distance(next)) {
+                    search.reach(next, viaNode,
+                            viaNode + GeoGridIndex.distanceKm(latitude(next), longitude(next), targetLat, targetLon));
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    // Per-thread A* state. Arrays are reused between queries; a stamp tells which entries belong to the current one
+    private static final class Search {
+
+        private final int[] reachedIn;
+        private final int[] settledIn;
+        private final double[] distances;
+        private final NodeHeap heap = new NodeHeap();
+        private int query;
+
+        private Search(int nodeCount) {
+            reachedIn = new int[nodeCount];
+            settledIn = new int[nodeCount];
+            distances = new double[nodeCount];
+        }
+
+        private void start() {
+            query++;
+            heap.clear();
+        }
+
+        private double distance(int node) {
+            return reachedIn[node] == query ? distances[node] : Double.POSITIVE_INFINITY;
+        }
+
+        private void reach(int node, double distance, double estimate) {
+            reachedIn[node] = query;
+            distances[node] = distance;
+            heap.push(node, estimate);
+        }
+
+        // False if the node was already settled in this query
+        private boolean settle(int node) {
+            if (settledIn[node] == query) {
+                return false;
+            }
+            settledIn[node] = query;
+            return true;
+        }
+    }
+
+    // Binary min-heap of (node, priority) on primitive arrays; decrease-key is done by pushing a duplicate
+    private static final class NodeHeap {
+
+        private int[] nodes = new int[64];
+        private double[] priorities = new double[64];
+        private int size;
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void clear() {
+            size = 0;
+        }
+
+        private void push(int node, double priority) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                priorities = Arrays.copyOf(priorities, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (priorities[parent] <= priority) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                priorities[i] = priorities[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            priorities[i] = priority;
+        }
+
+        private int pop() {
+            int top = nodes[0];
+            int lastNode = nodes[--size];
+            double last = priorities[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && priorities[child + 1] < priorities[child]) {
+                    child++;
+                }
+                if (priorities[child] >= last) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                priorities[i] = priorities[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            priorities[i] = last;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.cabify.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free count of events over the last N buckets of time.
+ *
+ * Each bucket is one long holding the bucket's time slot in the high bits and its count in the low 20 bits, so
+ * rolling a bucket over to a new slot and counting into it are the same compare-and-set. Counts saturate at about
+ * a million per bucket.
+ */
+public class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final long bucketMillis;
+    private final AtomicLongArray buckets;
+
+    public SlidingWindowCounter(int bucketCount, long bucketMillis) {
+        if (bucketCount < 1 || bucketMillis < 1) {
+            throw new IllegalArgumentException("Need at least one bucket of at least 1 ms");
+        }
+        this.bucketMillis = bucketMillis;
+        this.buckets = new AtomicLongArray(bucketCount);
+    }
+
+    public void increment(long nowMillis) {
+        add(nowMillis, 1);
+    }
+
+    public void add(long nowMillis, long amount) {
+        long slot = nowMillis / bucketMillis;
+        int index = (int) (slot % buckets.length());
+        while (true) {
+            long current = buckets.get(index);
+            long count = (current >>> COUNT_BITS) == slot ? current & COUNT_MASK : 0;
+            long updated = (slot << COUNT_BITS) | Math.min(COUNT_MASK, count + amount);
+            if (current == updated || buckets.compareAndSet(index, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    // Events in the buckets that still fall inside the window ending now
+    public long sum(long nowMillis) {
+        long slot = nowMillis / bucketMillis;
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            long bucket = buckets.get(i);
+            if (slot - (bucket >>> COUNT_BITS) < buckets.length()) {
+                total += bucket & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+}
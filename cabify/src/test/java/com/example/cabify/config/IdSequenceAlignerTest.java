@@ -0,0 +1,54 @@
+package com.example.cabify.config;
+
+import com.example.cabify.model.ArchivedRide;
+import com.example.cabify.model.RideStatus;
+import com.example.cabify.repository.ArchivedRideRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest
+public class IdSequenceAlignerTest {
+
+    @Autowired
+    private IdSequenceAligner idSequenceAligner;
+
+    @Autowired
+    private ArchivedRideRepository archivedRideRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void cleanUp() {
+        archivedRideRepository.deleteAll();
+    }
+
+    @Test
+    public void testAlign_MovesTheGeneratorPastExistingIds() {
+        // A ride id handed out by the old AUTO_INCREMENT column, far beyond where the sequence is
+        ArchivedRide legacy = new ArchivedRide();
+        legacy.setId(10_000L);
+        legacy.setUserId(1L);
+        legacy.setDriverId(1L);
+        legacy.setStatus(RideStatus.PAID);
+        archivedRideRepository.save(legacy);
+
+        idSequenceAligner.align();
+
+        // The next block the pooled optimizer takes starts above the legacy id
+        long next = nextValue();
+        Assertions.assertTrue(next - IdSequenceAligner.ALLOCATION_SIZE + 1 > 10_000L, "next block ends at " + next);
+
+        // Aligned already: a second run leaves it alone
+        idSequenceAligner.align();
+        Assertions.assertEquals(next + IdSequenceAligner.ALLOCATION_SIZE * 2L, nextValue());
+    }
+
+    private long nextValue() {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR ride_seq", Long.class);
+    }
+}
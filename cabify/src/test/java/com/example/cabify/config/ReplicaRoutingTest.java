@@ -0,0 +1,141 @@
+package com.example.cabify.config;
+
+import com.example.cabify.dto.ride.RideRequestDto;
+import com.example.cabify.dto.ride.RideResponseDto;
+import com.example.cabify.model.Driver;
+import com.example.cabify.model.DriverStatus;
+import com.example.cabify.model.User;
+import com.example.cabify.repository.DriverRepository;
+import com.example.cabify.repository.RideRepository;
+import com.example.cabify.repository.UserRepository;
+import com.example.cabify.service.DriverAvailabilityIndex;
+import com.example.cabify.service.IRideService;
+import com.example.cabify.service.IdentityCache;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+
+// Two in-memory H2 databases stand in for the primary and a replica that never catches up on its own
+@SpringBootTest(properties = {
+        "cabify.datasource.replica.url=jdbc:h2:mem:cabify-replica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "cabify.datasource.replica.read-your-writes-ms=500"
+})
+public class ReplicaRoutingTest {
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:cabify-replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @TempDir
+    Path dir;
+
+    @Autowired
+    private IRideService rideService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private DriverAvailabilityIndex driverAvailabilityIndex;
+
+    @Autowired
+    private IdentityCache identityCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @AfterEach
+    public void cleanUp() {
+        rideRepository.deleteAll();
+        driverRepository.deleteAll();
+        userRepository.deleteAll();
+        driverAvailabilityIndex.rebuild();
+    }
+
+    @Test
+    public void testReads_GoToReplicaExceptRightAfterOwnWrite() throws Exception {
+        copyPrimaryToReplica(false);
+        User user = userRepository.save(new User(null, "replica@example.com", "Asha", 9000000011L, "pw", null));
+        Driver driver = new Driver();
+        driver.setName("Replica Driver");
+        driver.setEmail("replica-driver@example.com");
+        driver.setLicenseNumber("REPL-1");
+        driver.setStatus(DriverStatus.AVAILABLE);
+        driverRepository.save(driver);
+        driverAvailabilityIndex.rebuild();
+        // Identity cache misses are read from the primary; warm it so only the routing rule decides below
+        Assertions.assertEquals(List.of(), rideIds(user));
+        Assertions.assertNull(rideService.getActiveRideForDriver(driver.getDriverId()));
+
+        RideRequestDto request = new RideRequestDto();
+        request.setUserId(user.getUserId());
+        request.setSource("Adyar");
+        request.setDestination("Guindy");
+        RideResponseDto booked = rideService.bookRide(request);
+
+        // Just booked: pinned to the primary, so the rider sees the new ride
+        Assertions.assertEquals(List.of(booked.getRideId()), rideIds(user));
+        Assertions.assertEquals(booked.getRideId(), rideService.getActiveRideForDriver(driver.getDriverId()).getRideId());
+
+        // Once the window has passed, history comes from the (empty) replica
+        Thread.sleep(700);
+        Assertions.assertEquals(List.of(), rideIds(user));
+
+        // Replica catches up
+        copyPrimaryToReplica(true);
+        Assertions.assertEquals(List.of(booked.getRideId()), rideIds(user));
+    }
+
+    @Test
+    public void testIdentityMiss_LoadsFromPrimaryInsideATransactionBoundToTheReplica() throws Exception {
+        copyPrimaryToReplica(false);
+        User user = userRepository.save(new User(null, "replica-late@example.com", "Kavya", 9000000012L, "pw", null));
+
+        // A read-only service transaction that has already read from the (empty) replica
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.setName("com.example.cabify.service.RideServiceImpl.getMyRides");
+        Optional<IdentityCache.CachedUser> cached = readOnly.execute(status -> {
+            Assertions.assertEquals(0, rideRepository.count());
+            return identityCache.user(user.getUserId());
+        });
+
+        Assertions.assertEquals("Kavya", cached.orElseThrow().name());
+    }
+
+    private List<Long> rideIds(User user) {
+        return rideService.getMyRides(user.getUserId()).stream().map(RideResponseDto::getRideId).toList();
+    }
+
+    private void copyPrimaryToReplica(boolean withData) throws Exception {
+        Path script = dir.resolve("primary.sql");
+        new JdbcTemplate(primaryDataSource).execute("SCRIPT " + (withData ? "" : "NODATA ") + "DROP TO '" + script + "'");
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            statement.execute("RUNSCRIPT FROM '" + script + "'");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.cabify.config;
+
+import com.example.cabify.util.JwtPrincipal;
+import com.example.cabify.util.JwtUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private int status(MockHttpServletRequestBuilder request, JwtPrincipal.Role role) throws Exception {
+        return status(request, role, 1L);
+    }
+
+    private int status(MockHttpServletRequestBuilder request, JwtPrincipal.Role role, Long id) throws Exception {
+        String token = jwtUtil.generateToken("role-check@example.com", id, role);
+        return mockMvc.perform(request.header("Authorization", "Bearer " + token)).andReturn().getResponse().getStatus();
+    }
+
+    @Test
+    public void testRiderTokenIsForbiddenOnDriverEndpoints() throws Exception {
+        Assertions.assertEquals(403, status(put("/api/drivers/status/1").param("status", "AVAILABLE"), JwtPrincipal.Role.RIDER));
+        Assertions.assertEquals(403, status(put("/api/drivers/location/1").param("latitude", "13.0").param("longitude", "80.2"),
+                JwtPrincipal.Role.RIDER));
+        Assertions.assertEquals(403, status(put("/api/rides/1/end"), JwtPrincipal.Role.RIDER));
+        Assertions.assertEquals(403, status(get("/api/rides/active-request/1"), JwtPrincipal.Role.RIDER));
+        Assertions.assertEquals(403, status(get("/api/rides/driver/history/1"), JwtPrincipal.Role.RIDER));
+    }
+
+    @Test
+    public void testDriverTokenIsForbiddenOnRiderEndpoints() throws Exception {
+        Assertions.assertEquals(403, status(get("/api/rides/history"), JwtPrincipal.Role.DRIVER));
+        Assertions.assertEquals(403, status(get("/api/users/profile"), JwtPrincipal.Role.DRIVER));
+        Assertions.assertEquals(403, status(get("/api/payments/receipt/1"), JwtPrincipal.Role.DRIVER));
+    }
+
+    @Test
+    public void testDriverTokenIsForbiddenOnAnotherDriversId() throws Exception {
+        Assertions.assertEquals(403, status(put("/api/drivers/status/2").param("status", "AVAILABLE"), JwtPrincipal.Role.DRIVER));
+        Assertions.assertEquals(403, status(put("/api/drivers/location/2").param("latitude", "13.0").param("longitude", "80.2"),
+                JwtPrincipal.Role.DRIVER));
+        Assertions.assertEquals(403, status(get("/api/drivers/2"), JwtPrincipal.Role.DRIVER));
+        Assertions.assertEquals(403, status(get("/api/rides/active-request/2"), JwtPrincipal.Role.DRIVER));
+        Assertions.assertEquals(403, status(get("/api/rides/driver/history/2"), JwtPrincipal.Role.DRIVER));
+        Assertions.assertEquals(403, status(get("/api/rides/driver/history/2/page"), JwtPrincipal.Role.DRIVER));
+
+        // The same driver's own id gets through (and finds no such driver)
+        Assertions.assertEquals(404, status(get("/api/drivers/2"), JwtPrincipal.Role.DRIVER, 2L));
+    }
+
+    @Test
+    public void testMissingOrExpiredTokenIsUnauthorized() throws Exception {
+        // 401 rather than 403, so the UI knows to trade its refresh token for a new one
+        Assertions.assertEquals(401, mockMvc.perform(get("/api/rides/history")).andReturn().getResponse().getStatus());
+        Assertions.assertEquals(401, mockMvc.perform(get("/api/rides/history").header("Authorization", "Bearer expired.or.garbage"))
+                .andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    public void testEachRoleReachesItsOwnEndpoints() throws Exception {
+        Assertions.assertEquals(200, status(get("/api/rides/locations"), JwtPrincipal.Role.RIDER));
+        // Past security; there is just no driver 1
+        Assertions.assertEquals(404, status(get("/api/rides/driver/history/1"), JwtPrincipal.Role.DRIVER));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.cabify.filter;
+
+import com.example.cabify.service.CustomDriverDetailsService;
+import com.example.cabify.service.CustomUserDetailsService;
+import com.example.cabify.service.TokenDenyList;
+import com.example.cabify.service.VerifiedTokenCache;
+import com.example.cabify.util.JwtPrincipal;
+import com.example.cabify.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtRequestFilterTest {
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private CustomDriverDetailsService driverDetailsService;
+
+    private final JwtUtil jwtUtil = new JwtUtil("test-secret-key-that-is-at-least-32-bytes-long");
+
+    @Spy
+    private VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(jwtUtil);
+
+    @Spy
+    private TokenDenyList tokenDenyList;
+
+    @InjectMocks
+    private JwtRequestFilter jwtRequestFilter;
+
+    @BeforeEach
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication filter(String token, String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtRequestFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    @Test
+    public void testFilter_AuthenticatesFromClaimsWithoutTheDatabase() throws Exception {
+        String token = jwtUtil.generateToken("ravi@example.com", 12L, JwtPrincipal.Role.DRIVER);
+
+        // Driver token on a rider-looking URL: the role claim decides, not the path
+        Authentication authentication = filter(token, "/api/rides/my-history");
+
+        Assertions.assertNotNull(authentication);
+        Assertions.assertEquals("ravi@example.com", authentication.getName());
+        JwtPrincipal principal = (JwtPrincipal) authentication.getPrincipal();
+        Assertions.assertEquals(12L, principal.id());
+        Assertions.assertEquals(List.of("ROLE_DRIVER"),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        Mockito.verifyNoInteractions(userDetailsService, driverDetailsService);
+    }
+
+    @Test
+    public void testFilter_RejectsARevokedToken() throws Exception {
+        String token = jwtUtil.generateToken("asha@example.com", 3L, JwtPrincipal.Role.RIDER);
+        Assertions.assertNotNull(filter(token, "/api/rides/my-history"));
+
+        tokenDenyList.revoke(jwtUtil.validate(token));
+
+        // Even though the token itself is still in the verified-token cache
+        Assertions.assertNull(filter(token, "/api/rides/my-history"));
+        // Other tokens of the same rider are unaffected
+        Assertions.assertNotNull(filter(jwtUtil.generateToken("asha@example.com", 3L, JwtPrincipal.Role.RIDER),
+                "/api/rides/my-history"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.user.AuthResponseDto;
+import com.example.cabify.model.RefreshToken;
+import com.example.cabify.model.User;
+import com.example.cabify.repository.RefreshTokenRepository;
+import com.example.cabify.repository.UserRepository;
+import com.example.cabify.util.JwtPrincipal;
+import com.example.cabify.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+
+@SpringBootTest
+public class AuthTokenServiceTest {
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(new User(null, "refresh@example.com", "Kavya", 9000000021L, "pw", null));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private void assertUnauthorized(String refreshToken) {
+        ResponseStatusException e = Assertions.assertThrows(ResponseStatusException.class,
+                () -> authTokenService.refresh(refreshToken));
+        Assertions.assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+    }
+
+    @Test
+    public void testRefresh_RotatesAndStoresOnlyTheHash() {
+        AuthResponseDto login = authTokenService.login(user.getEmail(), user.getUserId(), JwtPrincipal.Role.RIDER);
+
+        AuthResponseDto refreshed = authTokenService.refresh(login.getRefreshToken());
+
+        Assertions.assertNotEquals(login.getRefreshToken(), refreshed.getRefreshToken());
+        JwtPrincipal principal = jwtUtil.validate(refreshed.getToken());
+        Assertions.assertEquals(user.getUserId(), principal.id());
+        Assertions.assertEquals(JwtPrincipal.Role.RIDER, principal.role());
+        Assertions.assertEquals(JwtUtil.DEFAULT_ACCESS_TOKEN_MS / 1000, refreshed.getExpiresIn());
+        Assertions.assertTrue(refreshTokenRepository.findAll().stream()
+                .map(RefreshToken::getTokenHash)
+                .noneMatch(hash -> hash.equals(login.getRefreshToken()) || hash.equals(refreshed.getRefreshToken())));
+        // The successor works in turn
+        Assertions.assertNotNull(authTokenService.refresh(refreshed.getRefreshToken()).getToken());
+    }
+
+    @Test
+    public void testRefresh_ReuseRevokesTheWholeFamily() {
+        AuthResponseDto login = authTokenService.login(user.getEmail(), user.getUserId(), JwtPrincipal.Role.RIDER);
+        AuthResponseDto refreshed = authTokenService.refresh(login.getRefreshToken());
+        AuthResponseDto otherDevice = authTokenService.login(user.getEmail(), user.getUserId(), JwtPrincipal.Role.RIDER);
+
+        // The first token comes back after it was exchanged: the descendant is cut off too
+        assertUnauthorized(login.getRefreshToken());
+        assertUnauthorized(refreshed.getRefreshToken());
+
+        // Another login is its own family and keeps working
+        Assertions.assertNotNull(authTokenService.refresh(otherDevice.getRefreshToken()).getToken());
+    }
+
+    @Test
+    public void testRefresh_RejectsExpiredRevokedAndUnknownTokens() {
+        AuthResponseDto expired = authTokenService.login(user.getEmail(), user.getUserId(), JwtPrincipal.Role.RIDER);
+        refreshTokenRepository.findAll().forEach(token -> {
+            token.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+            refreshTokenRepository.save(token);
+        });
+        AuthResponseDto loggedOut = authTokenService.login(user.getEmail(), user.getUserId(), JwtPrincipal.Role.RIDER);
+        authTokenService.revoke(loggedOut.getRefreshToken());
+
+        assertUnauthorized(expired.getRefreshToken());
+        assertUnauthorized(loggedOut.getRefreshToken());
+        assertUnauthorized("not-a-refresh-token");
+    }
+}
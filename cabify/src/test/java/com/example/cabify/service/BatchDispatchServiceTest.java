@@ -0,0 +1,103 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.ride.RideRequestDto;
+import com.example.cabify.dto.ride.RideResponseDto;
+import com.example.cabify.model.Driver;
+import com.example.cabify.model.DriverStatus;
+import com.example.cabify.model.User;
+import com.example.cabify.repository.DriverRepository;
+import com.example.cabify.repository.RideRepository;
+import com.example.cabify.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@SpringBootTest(properties = {"cabify.dispatch.batch.enabled=true", "cabify.dispatch.batch.window-ms=50"})
+public class BatchDispatchServiceTest {
+
+    @Autowired
+    private BatchDispatchService batchDispatchService;
+
+    @Autowired
+    private DriverAvailabilityIndex driverAvailabilityIndex;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @AfterEach
+    public void cleanUp() {
+        rideRepository.deleteAll();
+        driverRepository.deleteAll();
+        userRepository.deleteAll();
+        driverAvailabilityIndex.rebuild();
+    }
+
+    @Test
+    public void testBurstOfBookings_AllMatchedToDistinctNearbyDrivers() throws Exception {
+        // Two cabs waiting at each hub
+        String[] hubs = {"Guindy", "TNagar", "Sholinganallur"};
+        double[][] hubPoints = {{13.0067, 80.2206}, {13.0418, 80.2341}, {12.9010, 80.2279}};
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Driver driver = new Driver();
+            driver.setName("Driver " + i);
+            driver.setEmail("batch.driver" + i + "@cabify.com");
+            driver.setPassword("secret");
+            driver.setPhone(String.format("91000%05d", i));
+            driver.setLicenseNumber("TN-BATCH-" + i);
+            driver.setVehicleModel("Dzire");
+            driver.setVehiclePlate("TN09BD" + i);
+            driver.setStatus(DriverStatus.AVAILABLE);
+            driver.setLatitude(hubPoints[i % 3][0] + 0.001 * i);
+            driver.setLongitude(hubPoints[i % 3][1]);
+            drivers.add(driver);
+        }
+        driverRepository.saveAll(drivers);
+        driverAvailabilityIndex.rebuild();
+
+        List<CompletableFuture<RideResponseDto>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            User user = new User();
+            user.setName("Batch Rider " + i);
+            user.setEmail("batch.rider" + i + "@cabify.com");
+            user.setPassword("secret");
+            user.setPhone(7000000000L + i);
+            User rider = userRepository.save(user);
+
+            RideRequestDto request = new RideRequestDto();
+            request.setUserId(rider.getUserId());
+            request.setSource(hubs[i % 3]);
+            request.setDestination("Adyar");
+            results.add(batchDispatchService.submit(request));
+        }
+
+        List<RideResponseDto> rides = new ArrayList<>();
+        for (CompletableFuture<RideResponseDto> result : results) {
+            rides.add(result.get(10, TimeUnit.SECONDS));
+        }
+        Set<String> plates = rides.stream().map(RideResponseDto::getVehiclePlate).collect(Collectors.toSet());
+
+        Assertions.assertEquals(6, plates.size());
+        // Every rider got one of the two cabs waiting at their own hub
+        for (int i = 0; i < 6; i++) {
+            String plate = rides.get(i).getVehiclePlate();
+            int driverIndex = Integer.parseInt(plate.substring("TN09BD".length()));
+            Assertions.assertEquals(i % 3, driverIndex % 3);
+        }
+    }
+}
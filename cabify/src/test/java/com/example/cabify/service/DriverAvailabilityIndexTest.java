@@ -0,0 +1,116 @@
+package com.example.cabify.service;
+
+import com.example.cabify.model.DriverStatus;
+import com.example.cabify.model.Zone;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DriverAvailabilityIndexTest {
+
+    @Test
+    public void testClaim_SkipsDriversThatAreNoLongerAvailable() {
+        DriverAvailabilityIndex index = new DriverAvailabilityIndex();
+        index.update(1L, DriverStatus.AVAILABLE);
+        index.update(2L, DriverStatus.AVAILABLE);
+        index.update(1L, DriverStatus.OFFLINE);
+
+        Assertions.assertEquals(2L, index.claimNearest(13.0, 80.25));
+        Assertions.assertNull(index.claimNearest(13.0, 80.25));
+
+        index.release(2L);
+        Assertions.assertEquals(2L, index.claimNearest(13.0, 80.25));
+    }
+
+    @Test
+    public void testClaim_PrefersNearestDriverOverUnlocatedOnes() {
+        DriverAvailabilityIndex index = new DriverAvailabilityIndex();
+        index.update(1L, DriverStatus.AVAILABLE); // no position yet
+        index.moveTo(2L, 12.9010, 80.2279); // Sholinganallur
+        index.update(2L, DriverStatus.AVAILABLE);
+        index.moveTo(3L, 13.0067, 80.2206); // Guindy
+        index.update(3L, DriverStatus.AVAILABLE);
+
+        // Pickup at Adyar: Guindy is closer than Sholinganallur
+        Assertions.assertEquals(3L, index.claimNearest(13.0012, 80.2565));
+        Assertions.assertEquals(2L, index.claimNearest(13.0012, 80.2565));
+        Assertions.assertEquals(1L, index.claimNearest(13.0012, 80.2565));
+        Assertions.assertNull(index.claimNearest(13.0012, 80.2565));
+    }
+
+    @Test
+    public void testClaim_BorrowsFromNeighbourZonesOnlyWhenDry() {
+        DriverAvailabilityIndex index = new DriverAvailabilityIndex();
+        index.moveTo(1L, 12.9390, 80.2330); // Thoraipakkam (OMR)
+        index.update(1L, DriverStatus.AVAILABLE);
+        index.moveTo(2L, 13.0850, 80.2101); // Anna Nagar (CENTRAL_NORTH)
+        index.update(2L, DriverStatus.AVAILABLE);
+        index.moveTo(3L, 12.9200, 80.1920); // Medavakkam (WEST)
+        index.update(3L, DriverStatus.AVAILABLE);
+
+        double[] adyar = {13.0012, 80.2565};
+        Assertions.assertEquals(0, index.availableCount(Zone.CENTRAL_SOUTH));
+        // CENTRAL_SOUTH is dry: neighbours are tried in order (CENTRAL_NORTH, OMR, WEST), even though
+        // the OMR cab is closer to Adyar
+        Assertions.assertEquals(2L, index.claimNearest(Zone.CENTRAL_SOUTH, adyar[0], adyar[1]));
+        Assertions.assertEquals(1L, index.claimNearest(Zone.CENTRAL_SOUTH, adyar[0], adyar[1]));
+        Assertions.assertEquals(3L, index.claimNearest(Zone.CENTRAL_SOUTH, adyar[0], adyar[1]));
+
+        // OMR does not borrow from CENTRAL_NORTH
+        index.release(2L);
+        Assertions.assertNull(index.claimNearest(Zone.OMR, 12.9010, 80.2279));
+    }
+
+    @Test
+    public void testConcurrentClaims_NeverHandOutADriverTwice() throws Exception {
+        DriverAvailabilityIndex index = new DriverAvailabilityIndex();
+        int drivers = 100;
+        int bookings = 500;
+        for (long id = 1; id <= drivers; id++) {
+            // Half the fleet has a position, the rest only sits in the fallback queue
+            if (id % 2 == 0) {
+                index.moveTo(id, 12.9 + id * 0.001, 80.2 + id * 0.001);
+            }
+            index.update(id, DriverStatus.AVAILABLE);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Long> claimed = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger noCab = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < bookings; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                Long driverId = index.claimNearest(13.0, 80.25);
+                if (driverId == null) {
+                    noCab.incrementAndGet();
+                } else if (!claimed.add(driverId)) {
+                    duplicates.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        Assertions.assertEquals(0, duplicates.get());
+        Assertions.assertEquals(drivers, claimed.size());
+        Assertions.assertEquals(bookings - drivers, noCab.get());
+        Assertions.assertEquals(0, index.availableCount());
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.cabify.service;
+
+import com.example.cabify.config.ReplicaRouting;
+import com.example.cabify.model.Driver;
+import com.example.cabify.model.DriverStatus;
+import com.example.cabify.model.User;
+import com.example.cabify.repository.DriverRepository;
+import com.example.cabify.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+public class IdentityCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private DriverRepository driverRepository;
+
+    @Spy
+    private ReplicaRouting replicaRouting;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private IdentityCache identityCache;
+
+    @Test
+    public void testUserByEmail_LoadsOnceAndCountsHits() {
+        identityCache.bindMetrics();
+        User user = new User(7L, "asha@example.com", "Asha", 9000000007L, "hash", null);
+        Mockito.when(userRepository.findByEmail("asha@example.com")).thenReturn(Optional.of(user));
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(7L, identityCache.userByEmail("asha@example.com").orElseThrow().userId());
+        }
+        // The email lookup also filled the by-id cache
+        Assertions.assertEquals("Asha", identityCache.user(7L).orElseThrow().name());
+
+        Mockito.verify(userRepository, Mockito.times(1)).findByEmail("asha@example.com");
+        Mockito.verify(userRepository, Mockito.never()).findById(7L);
+        Assertions.assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "identity.user-emails")
+                .tag("result", "hit").functionCounter().count());
+        Assertions.assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "identity.user-emails")
+                .tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void testDriver_EvictedSnapshotIsReloaded_MissesAreNotCached() {
+        Driver driver = new Driver(3L, "Ravi", "ravi@example.com", "hash", "9000000003", "LIC-3", "Swift",
+                "TN 01 A 3", DriverStatus.AVAILABLE, null, null);
+        Mockito.when(driverRepository.findById(3L)).thenReturn(Optional.of(driver));
+        Assertions.assertEquals(DriverStatus.AVAILABLE, identityCache.driver(3L).orElseThrow().status());
+
+        driver.setStatus(DriverStatus.BUSY);
+        Assertions.assertEquals(DriverStatus.AVAILABLE, identityCache.driver(3L).orElseThrow().status());
+        identityCache.evictDriver(3L);
+        Assertions.assertEquals(DriverStatus.BUSY, identityCache.driver(3L).orElseThrow().status());
+
+        Mockito.when(driverRepository.findById(4L)).thenReturn(Optional.empty());
+        Assertions.assertTrue(identityCache.driver(4L).isEmpty());
+        Assertions.assertTrue(identityCache.driver(4L).isEmpty());
+        Mockito.verify(driverRepository, Mockito.times(2)).findById(4L);
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.event.RideEventMessage;
+import com.example.cabify.dto.ride.RideRequestDto;
+import com.example.cabify.dto.ride.RideResponseDto;
+import com.example.cabify.model.Driver;
+import com.example.cabify.model.DriverStatus;
+import com.example.cabify.model.OutboxEvent;
+import com.example.cabify.model.OutboxEventType;
+import com.example.cabify.model.Ride;
+import com.example.cabify.model.RideStatus;
+import com.example.cabify.model.User;
+import com.example.cabify.repository.DriverRepository;
+import com.example.cabify.repository.OutboxEventRepository;
+import com.example.cabify.repository.RideRepository;
+import com.example.cabify.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+@SpringBootTest
+public class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private IEventSink eventSink;
+
+    @Autowired
+    private IRideService rideService;
+
+    @Autowired
+    private DriverAvailabilityIndex driverAvailabilityIndex;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Local stand-in for the real sink: records what it accepted and rejects whatever it is told to
+    private static class RecordingSink implements IEventSink {
+        private final List<RideEventMessage> received = new ArrayList<>();
+        private Predicate<RideEventMessage> rejectWhen = message -> false;
+        private boolean loseAcks;
+
+        @Override
+        public void publish(RideEventMessage message) {
+            if (rejectWhen.test(message)) {
+                throw new IllegalStateException("Subscriber unavailable");
+            }
+            received.add(message);
+            if (loseAcks) {
+                // Delivered, but the relay never hears back
+                throw new IllegalStateException("Connection reset");
+            }
+        }
+
+        List<OutboxEventType> typesFor(Long rideId) {
+            return received.stream().filter(m -> m.getRideId().equals(rideId)).map(RideEventMessage::getType).toList();
+        }
+    }
+
+    private final RecordingSink sink = new RecordingSink();
+
+    @BeforeEach
+    public void setUp() {
+        outboxEventRepository.deleteAll();
+        ReflectionTestUtils.setField(outboxRelay, "eventSink", sink);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        ReflectionTestUtils.setField(outboxRelay, "eventSink", eventSink);
+        outboxEventRepository.deleteAll();
+        rideRepository.deleteAll();
+        driverRepository.deleteAll();
+        userRepository.deleteAll();
+        driverAvailabilityIndex.rebuild();
+    }
+
+    @Test
+    public void testDrain_KeepsEachRidesEventsInOrderAcrossAFailure() {
+        saveDrivers(2);
+        RideResponseDto first = book(saveRider(0));
+        RideResponseDto second = book(saveRider(1));
+        rideService.endRide(first.getRideId());
+        rideService.endRide(second.getRideId());
+        Assertions.assertEquals(4, outboxEventRepository.count());
+
+        // The first ride's booking can't be delivered yet; its end must not overtake it
+        sink.rejectWhen = message -> message.getRideId().equals(first.getRideId());
+        Assertions.assertEquals(2, outboxRelay.drain());
+        Assertions.assertEquals(List.of(), sink.typesFor(first.getRideId()));
+        Assertions.assertEquals(List.of(OutboxEventType.RIDE_BOOKED, OutboxEventType.RIDE_ENDED),
+                sink.typesFor(second.getRideId()));
+        List<OutboxEvent> pending = outboxEventRepository.findByParkedAtIsNullOrderByIdAsc(Limit.of(10));
+        Assertions.assertEquals(2, pending.size());
+        Assertions.assertEquals(1, pending.get(0).getAttempts());
+        Assertions.assertEquals(0, pending.get(1).getAttempts());
+
+        sink.rejectWhen = message -> false;
+        Assertions.assertEquals(2, outboxRelay.drain());
+        Assertions.assertEquals(List.of(OutboxEventType.RIDE_BOOKED, OutboxEventType.RIDE_ENDED),
+                sink.typesFor(first.getRideId()));
+        Assertions.assertEquals(0, outboxEventRepository.count());
+
+        RideEventMessage ended = sink.received.get(3);
+        Assertions.assertEquals(RideStatus.PAID, ended.getPayload().getStatus());
+        Assertions.assertEquals(first.getFare(), ended.getPayload().getPaymentAmount());
+    }
+
+    @Test
+    public void testDrain_RedeliversWhenTheAcknowledgementIsLost() {
+        saveDrivers(1);
+        RideResponseDto ride = book(saveRider(0));
+
+        sink.loseAcks = true;
+        Assertions.assertEquals(0, outboxRelay.drain());
+        sink.loseAcks = false;
+        Assertions.assertEquals(1, outboxRelay.drain());
+
+        // At-least-once: the same event (same id) arrived twice, and nothing is left behind
+        Assertions.assertEquals(2, sink.received.size());
+        Set<Long> eventIds = new HashSet<>();
+        sink.received.forEach(message -> eventIds.add(message.getEventId()));
+        Assertions.assertEquals(1, eventIds.size());
+        Assertions.assertEquals(ride.getRideId(), sink.received.get(0).getPayload().getRideId());
+        Assertions.assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    public void testDrain_ParksAPoisonEventAndLetsTheRideCarryOn() {
+        ReflectionTestUtils.setField(outboxRelay, "maxAttempts", 3);
+        try {
+            saveDrivers(1);
+            RideResponseDto ride = book(saveRider(0));
+            rideService.endRide(ride.getRideId());
+
+            sink.rejectWhen = message -> message.getType() == OutboxEventType.RIDE_BOOKED;
+            for (int attempt = 1; attempt < 3; attempt++) {
+                Assertions.assertEquals(0, outboxRelay.drain());
+            }
+            // Third failure parks the booking; the ride's end is no longer held behind it
+            Assertions.assertEquals(0, outboxRelay.drain());
+            Assertions.assertEquals(1, outboxRelay.drain());
+            Assertions.assertEquals(List.of(OutboxEventType.RIDE_ENDED), sink.typesFor(ride.getRideId()));
+
+            List<OutboxEvent> parked = outboxEventRepository.findAll().stream()
+                    .filter(event -> event.getParkedAt() != null).toList();
+            Assertions.assertEquals(1, parked.size());
+            Assertions.assertEquals(OutboxEventType.RIDE_BOOKED, parked.get(0).getType());
+            Assertions.assertEquals(3, parked.get(0).getAttempts());
+            Assertions.assertEquals("Subscriber unavailable", parked.get(0).getLastError());
+
+            // Parked events stay out of later passes
+            sink.rejectWhen = message -> false;
+            Assertions.assertEquals(0, outboxRelay.drain());
+            Assertions.assertEquals(1, outboxEventRepository.count());
+        } finally {
+            ReflectionTestUtils.setField(outboxRelay, "maxAttempts", 10);
+        }
+    }
+
+    @Test
+    public void testWriter_EventRollsBackWithItsTransaction() {
+        Driver driver = saveDrivers(1).get(0);
+        User user = saveRider(0);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Ride ride = new Ride();
+            ride.setUser(user);
+            ride.setDriver(driver);
+            ride.setSource("Adyar");
+            ride.setDestination("Guindy");
+            ride.setFare(90.0);
+            ride.setStatus(RideStatus.BOOKED);
+            ride.setStartTime(LocalDateTime.now());
+            outboxWriter.rideBooked(rideRepository.save(ride));
+            status.setRollbackOnly();
+        });
+
+        Assertions.assertEquals(0, outboxEventRepository.count());
+        Assertions.assertEquals(0, rideRepository.count());
+    }
+
+    private RideResponseDto book(User user) {
+        RideRequestDto request = new RideRequestDto();
+        request.setUserId(user.getUserId());
+        request.setSource("Adyar");
+        request.setDestination("Guindy");
+        return rideService.bookRide(request);
+    }
+
+    private List<Driver> saveDrivers(int count) {
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Driver driver = new Driver();
+            driver.setName("Outbox Driver " + i);
+            driver.setEmail("outbox-driver" + i + "@cabify.com");
+            driver.setLicenseNumber("OUT-" + i);
+            driver.setVehicleModel("Dzire");
+            driver.setVehiclePlate("TN09OB" + i);
+            driver.setStatus(DriverStatus.AVAILABLE);
+            drivers.add(driver);
+        }
+        drivers = driverRepository.saveAll(drivers);
+        driverAvailabilityIndex.rebuild();
+        return drivers;
+    }
+
+    private User saveRider(int i) {
+        User user = new User();
+        user.setName("Outbox Rider " + i);
+        user.setEmail("outbox-rider" + i + "@cabify.com");
+        user.setPassword("secret");
+        user.setPhone(8100000000L + i);
+        return userRepository.save(user);
+    }
+}
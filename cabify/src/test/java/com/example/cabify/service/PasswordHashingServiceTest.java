@@ -0,0 +1,105 @@
+package com.example.cabify.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PasswordHashingService service;
+
+    private PasswordHashingService start(PasswordEncoder encoder, int threads, int queueCapacity) {
+        service = new PasswordHashingService();
+        ReflectionTestUtils.setField(service, "passwordEncoder", encoder);
+        ReflectionTestUtils.setField(service, "meterRegistry", registry);
+        ReflectionTestUtils.setField(service, "threads", threads);
+        ReflectionTestUtils.setField(service, "queueCapacity", queueCapacity);
+        service.start();
+        return service;
+    }
+
+    @AfterEach
+    public void stop() {
+        service.stop();
+    }
+
+    @Test
+    public void testEncodeAndMatches_RunOnThePoolAndAreTimed() {
+        start(new BCryptPasswordEncoder(4), 2, 4);
+
+        String hash = service.encode("s3cret");
+
+        Assertions.assertTrue(service.matches("s3cret", hash));
+        Assertions.assertFalse(service.matches("wrong", hash));
+        Assertions.assertEquals(1, registry.get("auth.password.hashing").tag("op", "encode").timer().count());
+        Assertions.assertEquals(2, registry.get("auth.password.hashing").tag("op", "matches").timer().count());
+    }
+
+    @Test
+    public void testMatchesUnknownAccount_StillRunsACheck() {
+        CountDownLatch checked = new CountDownLatch(1);
+        PasswordEncoder encoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                checked.countDown();
+                return super.matches(rawPassword, encodedPassword);
+            }
+        };
+        start(encoder, 1, 4);
+
+        // Same BCrypt work as a wrong password on a real account, so the miss can't be told apart by timing
+        Assertions.assertFalse(service.matchesUnknownAccount("cabify-unknown-account"));
+        Assertions.assertEquals(0, checked.getCount());
+        Assertions.assertEquals(1, registry.get("auth.password.hashing").tag("op", "matches").timer().count());
+    }
+
+    @Test
+    public void testMatches_RejectsWith503WhenThePoolIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.matches(rawPassword, encodedPassword);
+            }
+        };
+        start(slow, 1, 1);
+        String hash = service.encode("s3cret");
+
+        // One check running, one queued: the pool is full
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> service.matches("s3cret", hash));
+        Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> service.matches("s3cret", hash));
+        while (registry.get("executor.queued").tag("name", "auth.hashing").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+
+        long started = System.nanoTime();
+        ResponseStatusException rejected = Assertions.assertThrows(ResponseStatusException.class,
+                () -> service.matches("s3cret", hash));
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        Assertions.assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(500), "Rejection should not wait");
+        Assertions.assertEquals(1, registry.get("auth.password.rejected").tag("op", "matches").counter().count());
+
+        release.countDown();
+        Assertions.assertTrue(first.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(second.get(5, TimeUnit.SECONDS));
+    }
+}
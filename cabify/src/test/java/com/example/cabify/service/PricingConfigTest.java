@@ -0,0 +1,74 @@
+package com.example.cabify.service;
+
+import com.example.cabify.util.PricingSnapshot;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+public class PricingConfigTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testDefault_MatchesBundledTable() {
+        PricingSnapshot pricing = new PricingConfig().current();
+        int adyar = pricing.locations().idOf("Adyar");
+        int guindy = pricing.locations().idOf("Guindy");
+
+        Assertions.assertEquals(14, pricing.locations().size());
+        Assertions.assertEquals(7.0, pricing.distanceKm(adyar, guindy));
+        Assertions.assertEquals(70.0, pricing.fareFor(7.0));
+        Assertions.assertEquals(273.0, pricing.fareFor(39.0));
+    }
+
+    @Test
+    public void testReload_SwapsInNewVersionAndKeepsOldOneOnBadFile() throws IOException {
+        Path file = dir.resolve("pricing.json");
+        write(file, 1, """
+                {"slabs": [{"aboveKm": 0, "ratePerKm": 12.0}], "routes": {"Adyar-Guindy": 5.0}}
+                """);
+        PricingConfig config = new PricingConfig();
+        ReflectionTestUtils.setField(config, "pricingFile", file.toString());
+        config.init();
+
+        PricingSnapshot first = config.current();
+        Assertions.assertEquals(2, first.locations().size());
+        Assertions.assertEquals(60.0, first.fareFor(first.distanceKm(0, 1)));
+
+        // Unchanged file: nothing happens
+        config.reloadIfChanged();
+        Assertions.assertSame(first, config.current());
+
+        // Unknown location: rejected, the live version stays
+        write(file, 2, """
+                {"slabs": [{"aboveKm": 0, "ratePerKm": 12.0}], "routes": {"Adyar-Atlantis": 5.0}}
+                """);
+        config.reloadIfChanged();
+        Assertions.assertSame(first, config.current());
+
+        write(file, 3, """
+                {"slabs": [{"aboveKm": 0, "ratePerKm": 11.0}], "routes": {"Adyar-Guindy": 5.0, "Guindy-Velachery": 4.0}}
+                """);
+        config.reloadIfChanged();
+        PricingSnapshot second = config.current();
+        Assertions.assertTrue(second.version() > first.version());
+        Assertions.assertEquals(3, second.locations().size());
+        Assertions.assertEquals(99.0, second.fareFor(second.distanceKm(
+                second.locations().idOf("Adyar"), second.locations().idOf("Velachery"))));
+        // Anyone still holding the old snapshot keeps getting its prices
+        Assertions.assertEquals(60.0, first.fareFor(5.0));
+    }
+
+    // Bumps the modification time as well, so back-to-back writes are always seen as changes
+    private static void write(Path file, int generation, String json) throws IOException {
+        Files.writeString(file, json);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_000_000L * generation));
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.payment.PaymentResponseDto;
+import com.example.cabify.dto.rating.RatingResponseDto;
+import com.example.cabify.dto.ride.RideHistoryPageDto;
+import com.example.cabify.dto.ride.RideResponseDto;
+import com.example.cabify.model.ArchivedRide;
+import com.example.cabify.model.Driver;
+import com.example.cabify.model.DriverStatus;
+import com.example.cabify.model.Payment;
+import com.example.cabify.model.PaymentMethod;
+import com.example.cabify.model.PaymentStatus;
+import com.example.cabify.model.Rating;
+import com.example.cabify.model.Ride;
+import com.example.cabify.model.RideStatus;
+import com.example.cabify.model.User;
+import com.example.cabify.repository.ArchivedRideRepository;
+import com.example.cabify.repository.DriverRepository;
+import com.example.cabify.repository.PaymentRepository;
+import com.example.cabify.repository.RatingRepository;
+import com.example.cabify.repository.RideRepository;
+import com.example.cabify.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+public class RideArchiverTest {
+
+    @Autowired
+    private RideArchiver rideArchiver;
+
+    @Autowired
+    private IRideService rideService;
+
+    @Autowired
+    private IPaymentService paymentService;
+
+    @Autowired
+    private IRatingService ratingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private ArchivedRideRepository archivedRideRepository;
+
+    @AfterEach
+    public void cleanUp() {
+        archivedRideRepository.deleteAll();
+        ratingRepository.deleteAll();
+        rideRepository.deleteAll();
+        driverRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testArchive_MovesOldFinishedRidesAndHistoryStillSeesThem() {
+        User user = userRepository.save(new User(null, "archive@example.com", "Meena", 9000000003L, "pw", null));
+        Driver driver = new Driver();
+        driver.setName("Archive Driver");
+        driver.setEmail("archive-driver@example.com");
+        driver.setLicenseNumber("ARCH-1");
+        driver.setVehicleModel("Etios");
+        driver.setVehiclePlate("TN 02 A 1");
+        driver.setStatus(DriverStatus.AVAILABLE);
+        driver = driverRepository.save(driver);
+
+        // One ride a day, oldest first; the first five are old enough to archive except the COMPLETED one
+        LocalDateTime base = LocalDateTime.now().minusDays(60);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Ride ride = new Ride();
+            ride.setUser(user);
+            ride.setDriver(driver);
+            ride.setSource("Adyar");
+            ride.setDestination("Guindy");
+            ride.setFare(70.0 + i);
+            ride.setStartTime(base.plusDays(i < 5 ? i : 50 + i));
+            ride.setStatus(i == 1 ? RideStatus.CANCELLED : i == 3 ? RideStatus.COMPLETED : RideStatus.PAID);
+            if (ride.getStatus() == RideStatus.PAID) {
+                ride.setEndTime(ride.getStartTime().plusMinutes(30));
+                ride.setPayment(new Payment(null, ride, user, ride.getFare(), PaymentMethod.UPI, PaymentStatus.SUCCESS, null));
+            }
+            ride = rideRepository.save(ride);
+            ids.add(ride.getId());
+            if (i == 0) {
+                ratingRepository.save(new Rating(null, ride, user.getUserId(), driver.getDriverId(), 4, "Smooth", null));
+            }
+        }
+
+        int archived = rideArchiver.archiveBefore(LocalDateTime.now().minusDays(30));
+
+        Assertions.assertEquals(4, archived);
+        Assertions.assertEquals(4, archivedRideRepository.count());
+        Assertions.assertEquals(List.of(ids.get(3), ids.get(5), ids.get(6), ids.get(7)),
+                rideRepository.findAll().stream().map(Ride::getId).sorted().toList());
+        Assertions.assertEquals(0, ratingRepository.count());
+        Assertions.assertEquals(3, paymentRepository.count());
+        ArchivedRide first = archivedRideRepository.findById(ids.get(0)).orElseThrow();
+        Assertions.assertEquals("Meena", first.getUserName());
+        Assertions.assertEquals("TN 02 A 1", first.getVehiclePlate());
+        Assertions.assertEquals(4, first.getRatingScore());
+        Assertions.assertEquals(70.0, first.getPaymentAmount());
+
+        // Both tiers read as one
+        Assertions.assertEquals(ids, rideService.getMyRides(user.getUserId()).stream().map(RideResponseDto::getRideId).toList());
+        Assertions.assertEquals(8, rideService.getDriverRideHistory(driver.getDriverId()).size());
+
+        List<Long> paged = new ArrayList<>();
+        RideHistoryPageDto page = rideService.getMyRidesPage(user.getUserId(), null, null, 3);
+        while (true) {
+            page.getRides().forEach(ride -> paged.add(ride.getRideId()));
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            page = rideService.getMyRidesPage(user.getUserId(), page.getNextCursor(), null, 3);
+        }
+        Assertions.assertEquals(ids.reversed(), paged);
+
+        PaymentResponseDto receipt = paymentService.getReceipt(ids.get(2));
+        Assertions.assertEquals(ids.get(2), receipt.getRideId());
+        Assertions.assertEquals(72.0, receipt.getAmount());
+        List<RatingResponseDto> ratings = ratingService.getRatingsForUser(user.getUserId());
+        Assertions.assertEquals(1, ratings.size());
+        Assertions.assertEquals(ids.get(0), ratings.get(0).getRideId());
+
+        // Running again finds nothing left to move
+        Assertions.assertEquals(0, rideArchiver.archiveBefore(LocalDateTime.now().minusDays(30)));
+    }
+
+    @Test
+    public void testArchive_DriverKeepsArchivedRatings() {
+        User user = userRepository.save(new User(null, "archive-rated@example.com", "Ravi", 9000000004L, "pw", null));
+        Driver driver = new Driver();
+        driver.setName("Rated Driver");
+        driver.setEmail("rated-driver@example.com");
+        driver.setLicenseNumber("ARCH-2");
+        driver.setStatus(DriverStatus.AVAILABLE);
+        driver = driverRepository.save(driver);
+
+        // An old rated ride that gets archived and a recent one that stays live
+        List<Long> ids = new ArrayList<>();
+        int[] scores = {3, 5};
+        for (int i = 0; i < 2; i++) {
+            Ride ride = new Ride();
+            ride.setUser(user);
+            ride.setDriver(driver);
+            ride.setSource("Adyar");
+            ride.setDestination("Guindy");
+            ride.setFare(70.0);
+            ride.setStartTime(LocalDateTime.now().minusDays(i == 0 ? 60 : 1));
+            ride.setEndTime(ride.getStartTime().plusMinutes(30));
+            ride.setStatus(RideStatus.PAID);
+            ride = rideRepository.save(ride);
+            ids.add(ride.getId());
+            ratingRepository.save(new Rating(null, ride, user.getUserId(), driver.getDriverId(), scores[i], null, null));
+        }
+
+        Assertions.assertEquals(1, rideArchiver.archiveBefore(LocalDateTime.now().minusDays(30)));
+        Assertions.assertEquals(1, ratingRepository.count());
+
+        List<RatingResponseDto> ratings = ratingService.getRatingsForDriver(driver.getDriverId());
+        // Pooled id blocks don't promise the later ride the higher id, so compare as sets
+        Assertions.assertEquals(Set.copyOf(ids), ratings.stream().map(RatingResponseDto::getRideId).collect(Collectors.toSet()));
+        Assertions.assertEquals(4.0, ratingService.getAverageRatingForDriver(driver.getDriverId()));
+    }
+}
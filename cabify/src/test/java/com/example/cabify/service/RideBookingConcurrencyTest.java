@@ -0,0 +1,220 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.ride.RideRequestDto;
+import com.example.cabify.exception.ResourceNotFoundException;
+import com.example.cabify.model.Driver;
+import com.example.cabify.model.DriverStatus;
+import com.example.cabify.model.Ride;
+import com.example.cabify.model.User;
+import com.example.cabify.repository.DriverRepository;
+import com.example.cabify.repository.RideRepository;
+import com.example.cabify.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.mockito.Mockito;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Stress test against H2: many concurrent bookings, zero double assignments
+@SpringBootTest
+public class RideBookingConcurrencyTest {
+
+    private static final int DRIVERS = 25;
+    private static final int RIDERS = 300;
+
+    @Autowired
+    private IRideService rideService;
+
+    @Autowired
+    private DriverAvailabilityIndex driverAvailabilityIndex;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    public void cleanUp() {
+        rideRepository.deleteAll();
+        driverRepository.deleteAll();
+        userRepository.deleteAll();
+        driverAvailabilityIndex.rebuild();
+    }
+
+    @Test
+    public void testConcurrentBookings_NoDriverAssignedTwice() throws Exception {
+        List<Driver> drivers = saveDrivers(DRIVERS, DriverStatus.AVAILABLE);
+        List<User> riders = saveRiders(RIDERS);
+        driverAvailabilityIndex.rebuild();
+
+        // Mark a few rows BUSY behind the index's back, so the conditional UPDATE has to reject them
+        for (int i = 0; i < 5; i++) {
+            Driver driver = drivers.get(i);
+            driver.setStatus(DriverStatus.BUSY);
+            driverRepository.save(driver);
+        }
+
+        List<Callable<Boolean>> bookings = new ArrayList<>();
+        for (User rider : riders) {
+            bookings.add(() -> {
+                RideRequestDto request = new RideRequestDto();
+                request.setUserId(rider.getUserId());
+                request.setSource("Adyar");
+                request.setDestination("Guindy");
+                try {
+                    rideService.bookRide(request);
+                    return true;
+                } catch (ResourceNotFoundException e) {
+                    return false;
+                }
+            });
+        }
+        long booked = runConcurrently(bookings).stream().filter(Boolean::booleanValue).count();
+
+        List<Ride> rides = rideRepository.findAll();
+        Map<Long, Long> ridesPerDriver = rides.stream()
+                .collect(Collectors.groupingBy(r -> r.getDriver().getDriverId(), Collectors.counting()));
+
+        Assertions.assertEquals(DRIVERS - 5, booked);
+        Assertions.assertEquals(booked, rides.size());
+        Assertions.assertTrue(ridesPerDriver.values().stream().allMatch(count -> count == 1),
+                "A driver was assigned to more than one ride: " + ridesPerDriver);
+        Assertions.assertTrue(driverRepository.findAll().stream().allMatch(d -> d.getStatus() == DriverStatus.BUSY));
+    }
+
+    @Test
+    public void testConditionalClaim_OnlyOneWinnerPerDriver() throws Exception {
+        Driver driver = saveDrivers(1, DriverStatus.AVAILABLE).get(0);
+
+        List<Callable<Integer>> claims = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            claims.add(() -> transactionTemplate.execute(status -> driverRepository.claimIfAvailable(driver.getDriverId())));
+        }
+        int winners = runConcurrently(claims).stream().mapToInt(Integer::intValue).sum();
+
+        Assertions.assertEquals(1, winners);
+        Assertions.assertEquals(DriverStatus.BUSY, driverRepository.findById(driver.getDriverId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    public void testFailedBatchBooking_OnlyFreedDriversGoBackToTheIndex() {
+        List<Driver> drivers = saveDrivers(3, DriverStatus.AVAILABLE);
+        Long onAnotherRide = drivers.get(0).getDriverId();
+        Long fallback = drivers.get(1).getDriverId();
+        Long neverTried = drivers.get(2).getDriverId();
+        User rider = saveRiders(1).get(0);
+        driverAvailabilityIndex.rebuild();
+
+        // The batch dispatcher claimed a driver whose row another booking took in the meantime
+        Assertions.assertTrue(driverAvailabilityIndex.tryClaim(onAnotherRide));
+        Driver busy = driverRepository.findById(onAnotherRide).orElseThrow();
+        busy.setStatus(DriverStatus.BUSY);
+        driverRepository.save(busy);
+
+        // The booking falls back to claiming the other driver, then fails after the claim
+        RideServiceImpl target = AopTestUtils.getTargetObject(rideService);
+        OutboxWriter outboxWriter = (OutboxWriter) ReflectionTestUtils.getField(target, "outboxWriter");
+        OutboxWriter failing = Mockito.mock(OutboxWriter.class);
+        Mockito.doThrow(new IllegalStateException("Outbox unavailable")).when(failing).rideBooked(Mockito.any());
+        ReflectionTestUtils.setField(target, "outboxWriter", failing);
+        try {
+            RideRequestDto request = new RideRequestDto();
+            request.setUserId(rider.getUserId());
+            request.setSource("Adyar");
+            request.setDestination("Guindy");
+            Assertions.assertThrows(IllegalStateException.class, () -> rideService.bookRide(request, onAnotherRide));
+        } finally {
+            ReflectionTestUtils.setField(target, "outboxWriter", outboxWriter);
+        }
+
+        // Still on its other ride, so it stays out; whichever driver the fallback claimed was rolled back, so both
+        // others are free again
+        Assertions.assertFalse(driverAvailabilityIndex.isAvailable(onAnotherRide));
+        for (Long free : List.of(fallback, neverTried)) {
+            Assertions.assertTrue(driverAvailabilityIndex.isAvailable(free));
+            Assertions.assertEquals(DriverStatus.AVAILABLE, driverRepository.findById(free).orElseThrow().getStatus());
+        }
+
+        // A booking that fails before its conditional UPDATE hands the preclaimed driver straight back
+        Assertions.assertTrue(driverAvailabilityIndex.tryClaim(neverTried));
+        RideRequestDto unknownRider = new RideRequestDto();
+        unknownRider.setUserId(-1L);
+        unknownRider.setSource("Adyar");
+        unknownRider.setDestination("Guindy");
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> rideService.bookRide(unknownRider, neverTried));
+        Assertions.assertTrue(driverAvailabilityIndex.isAvailable(neverTried));
+    }
+
+    private List<Driver> saveDrivers(int count, DriverStatus status) {
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Driver driver = new Driver();
+            driver.setName("Driver " + i);
+            driver.setEmail("driver" + i + "@cabify.com");
+            driver.setPassword("secret");
+            driver.setPhone(String.format("90000%05d", i));
+            driver.setLicenseNumber("TN-LIC-" + i);
+            driver.setVehicleModel("Swift");
+            driver.setVehiclePlate("TN01AB" + i);
+            driver.setStatus(status);
+            drivers.add(driver);
+        }
+        return driverRepository.saveAll(drivers);
+    }
+
+    private List<User> saveRiders(int count) {
+        List<User> riders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setName("Rider " + i);
+            user.setEmail("rider" + i + "@cabify.com");
+            user.setPassword("secret");
+            user.setPhone(8000000000L + i);
+            riders.add(user);
+        }
+        return userRepository.saveAll(riders);
+    }
+
+    private <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = tasks.stream()
+                    .map(task -> pool.submit(() -> {
+                        start.await();
+                        return task.call();
+                    }))
+                    .collect(Collectors.toList());
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.cabify.service;
+
+import com.example.cabify.model.Zone;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RideEventLogTest {
+
+    @TempDir
+    Path dir;
+
+    private RideEventLog openLog() throws Exception {
+        RideEventLog eventLog = new RideEventLog();
+        ReflectionTestUtils.setField(eventLog, "journalDir", dir.toString());
+        eventLog.open();
+        return eventLog;
+    }
+
+    @Test
+    public void testOpen_RebuildsProjectionsFromSnapshotAndTail() throws Exception {
+        RideEventLog eventLog = openLog();
+        eventLog.recordBooked(1L, 10L, 100L, Zone.CENTRAL_SOUTH, 250.0);
+        eventLog.recordEnded(1L, 10L, 100L, 250.0);
+        eventLog.recordRating(1L, 10L, 100L, 4);
+        eventLog.snapshot();
+        // Events after the snapshot only exist in the journal
+        eventLog.recordBooked(2L, 11L, 100L, Zone.CENTRAL_SOUTH, 150.0);
+        eventLog.recordEnded(2L, 11L, 100L, 150.0);
+        eventLog.recordRating(2L, 11L, 100L, 5);
+        Assertions.assertTrue(Files.exists(dir.resolve("snapshot.bin")));
+
+        RideEventLog restarted = openLog();
+        RideProjections projections = restarted.projections();
+        Assertions.assertEquals(2, projections.completedRides(100L));
+        Assertions.assertEquals(400.0, projections.earnings(100L));
+        Assertions.assertEquals(4.5, projections.averageRating(100L).orElseThrow());
+        Assertions.assertEquals(2, projections.pickups(Zone.CENTRAL_SOUTH));
+
+        AtomicInteger replayed = new AtomicInteger();
+        restarted.replay(0, event -> replayed.incrementAndGet());
+        Assertions.assertEquals(6, replayed.get());
+        restarted.close();
+        eventLog.close();
+    }
+
+    @Test
+    public void testRecord_BadEventDoesNotFailTheCommittedTransaction() throws Exception {
+        RideEventLog eventLog = openLog();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // A ride without a driver can't be journaled; that must not surface after the commit
+            eventLog.recordEnded(1L, 10L, null, 250.0);
+            eventLog.recordEnded(2L, 10L, 100L, 150.0);
+            Assertions.assertDoesNotThrow(() -> TransactionSynchronizationUtils.invokeAfterCommit(
+                    TransactionSynchronizationManager.getSynchronizations()));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Assertions.assertEquals(1, eventLog.projections().completedRides(100L));
+        eventLog.close();
+    }
+
+    @Test
+    public void testRecord_DoesNothingWhenDisabled() throws Exception {
+        RideEventLog eventLog = new RideEventLog();
+        eventLog.open();
+        eventLog.recordEnded(1L, 10L, 100L, 250.0);
+
+        Assertions.assertEquals(0, eventLog.projections().completedRides(100L));
+        eventLog.close();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.cabify.service;
+
+import com.example.cabify.dto.ride.RideHistoryPageDto;
+import com.example.cabify.dto.ride.RideResponseDto;
+import com.example.cabify.model.Driver;
+import com.example.cabify.model.DriverStatus;
+import com.example.cabify.model.Payment;
+import com.example.cabify.model.PaymentMethod;
+import com.example.cabify.model.PaymentStatus;
+import com.example.cabify.model.Ride;
+import com.example.cabify.model.RideStatus;
+import com.example.cabify.model.User;
+import com.example.cabify.repository.DriverRepository;
+import com.example.cabify.repository.RideRepository;
+import com.example.cabify.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// History reads must stay a constant number of statements however many rides there are: one select per storage
+// tier, once the caller's identity is cached
+@SpringBootTest
+public class RideHistoryQueryTest {
+
+    private static final int RIDES = 40;
+
+    @Autowired
+    private IRideService rideService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    public void cleanUp() {
+        rideRepository.deleteAll();
+        driverRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testHistory_IsOneSelectPerTier() {
+        User user = userRepository.save(new User(null, "history@example.com", "Asha", 9000000001L, "pw", null));
+        // Every ride gets its own driver and a payment, the worst case for per-row loading
+        for (int i = 0; i < RIDES; i++) {
+            Driver driver = new Driver();
+            driver.setName("Driver " + i);
+            driver.setEmail("history-driver" + i + "@example.com");
+            driver.setLicenseNumber("HIST-" + i);
+            driver.setVehicleModel("Swift");
+            driver.setVehiclePlate("TN 01 H " + i);
+            driver.setStatus(DriverStatus.AVAILABLE);
+            driver = driverRepository.save(driver);
+
+            Ride ride = new Ride();
+            ride.setUser(user);
+            ride.setDriver(driver);
+            ride.setSource("Adyar");
+            ride.setDestination("Guindy");
+            ride.setFare(70.0);
+            ride.setStatus(RideStatus.PAID);
+            ride.setStartTime(LocalDateTime.now());
+            ride.setPayment(new Payment(null, ride, user, 70.0, PaymentMethod.UPI, PaymentStatus.SUCCESS, null));
+            rideRepository.save(ride);
+        }
+        Long driverId = rideRepository.findAll().get(0).getDriver().getDriverId();
+
+        // First calls put the user and the driver in the identity cache
+        rideService.getMyRides(user.getUserId());
+        rideService.getDriverRideHistory(driverId);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<RideResponseDto> history = rideService.getMyRides(user.getUserId());
+        Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(0, statistics.getEntityLoadCount());
+
+        Assertions.assertEquals(RIDES, history.size());
+        RideResponseDto first = history.get(0);
+        Assertions.assertEquals("Asha", first.getUserName());
+        Assertions.assertEquals("Driver 0", first.getDriverName());
+        Assertions.assertEquals("Swift", first.getVehicleModel());
+        Assertions.assertEquals("TN 01 H 0", first.getVehiclePlate());
+        Assertions.assertEquals(70.0, first.getFare());
+        Assertions.assertEquals(RideStatus.PAID, first.getStatus());
+
+        statistics.clear();
+        Assertions.assertEquals(1, rideService.getDriverRideHistory(driverId).size());
+        Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testHistoryPage_WalksBackWithCursorAndPollsChanges() {
+        User user = userRepository.save(new User(null, "pager@example.com", "Ravi", 9000000002L, "pw", null));
+        Driver driver = new Driver();
+        driver.setName("Pager Driver");
+        driver.setEmail("pager-driver@example.com");
+        driver.setLicenseNumber("PAGE-1");
+        driver.setStatus(DriverStatus.AVAILABLE);
+        Driver savedDriver = driverRepository.save(driver);
+        // 25 rides, three per start time, so the id tie-break matters
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Ride ride = new Ride();
+            ride.setUser(user);
+            ride.setDriver(savedDriver);
+            ride.setSource("Adyar");
+            ride.setDestination("Guindy");
+            ride.setFare(70.0);
+            ride.setStatus(RideStatus.COMPLETED);
+            ride.setStartTime(base.plusMinutes(i / 3));
+            ids.add(rideRepository.save(ride).getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        RideHistoryPageDto page = rideService.getMyRidesPage(user.getUserId(), null, null, 10);
+        String changesCursor = page.getChangesCursor();
+        Assertions.assertNotNull(changesCursor);
+        while (true) {
+            page.getRides().forEach(ride -> seen.add(ride.getRideId()));
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            page = rideService.getMyRidesPage(user.getUserId(), page.getNextCursor(), null, 10);
+        }
+        List<Long> newestFirst = new ArrayList<>(ids);
+        Collections.reverse(newestFirst);
+        Assertions.assertEquals(newestFirst, seen);
+
+        // Nothing changed yet, then exactly the ride that was updated
+        RideHistoryPageDto changes = rideService.getMyRidesPage(user.getUserId(), null, changesCursor, 10);
+        Assertions.assertTrue(changes.getRides().isEmpty());
+        Assertions.assertEquals(changesCursor, changes.getChangesCursor());
+
+        Ride paid = rideRepository.findById(ids.get(4)).orElseThrow();
+        paid.setStatus(RideStatus.PAID);
+        rideRepository.save(paid);
+
+        changes = rideService.getMyRidesPage(user.getUserId(), null, changesCursor, 10);
+        Assertions.assertEquals(1, changes.getRides().size());
+        Assertions.assertEquals(ids.get(4), changes.getRides().get(0).getRideId());
+        Assertions.assertEquals(RideStatus.PAID, changes.getRides().get(0).getStatus());
+        Assertions.assertTrue(rideService.getMyRidesPage(user.getUserId(), null, changes.getChangesCursor(), 10)
+                .getRides().isEmpty());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> rideService.getMyRidesPage(user.getUserId(), "not-a-cursor", null, 10));
+        Assertions.assertEquals(25, rideService.getDriverRideHistoryPage(savedDriver.getDriverId(), null, null, 100)
+                .getRides().size());
+    }
+}
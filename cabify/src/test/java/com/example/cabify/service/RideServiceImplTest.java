@@ -1,7 +1,10 @@
 package com.example.cabify.service;
 
+import com.example.cabify.config.ReplicaRouting;
+import com.example.cabify.dto.ride.FareQuoteDto;
 import com.example.cabify.dto.ride.RideRequestDto;
 import com.example.cabify.dto.ride.RideResponseDto;
+import com.example.cabify.dto.ride.RoutePairDto;
 import com.example.cabify.exception.ResourceNotFoundException;
 import com.example.cabify.model.*;
 import com.example.cabify.repository.DriverRepository;
@@ -13,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Optional;
@@ -32,6 +36,30 @@ public class RideServiceImplTest {
     @Mock
     private DriverRepository driverRepository;
 
+    @Mock
+    private IdentityCache identityCache;
+
+    @Mock
+    private ReplicaRouting replicaRouting;
+
+    @Mock
+    private RideEventLog rideEventLog;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private RoutingEngine routingEngine;
+
+    @Spy
+    private DriverAvailabilityIndex driverAvailabilityIndex;
+
+    @Spy
+    private SurgePricingEngine surgePricingEngine;
+
+    @Spy
+    private PricingConfig pricingConfig;
+
     @InjectMocks
     private RideServiceImpl rideServiceImpl;
 
@@ -58,9 +86,11 @@ public class RideServiceImplTest {
         mockSavedRide.setStatus(RideStatus.BOOKED);
         mockSavedRide.setUser(mockUser); // Prevents NPE
 
+        driverAvailabilityIndex.update(101L, DriverStatus.AVAILABLE);
+
         Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(mockUser));
-        Mockito.when(driverRepository.findFirstByStatus(DriverStatus.AVAILABLE))
-                .thenReturn(Optional.of(mockDriver));
+        Mockito.when(driverRepository.claimIfAvailable(101L)).thenReturn(1);
+        Mockito.when(driverRepository.findById(101L)).thenReturn(Optional.of(mockDriver));
         Mockito.when(rideRepository.existsByUserAndStatus(mockUser, RideStatus.BOOKED)).thenReturn(false);
         Mockito.when(rideRepository.save(any(Ride.class))).thenReturn(mockSavedRide);
 
@@ -68,7 +98,8 @@ public class RideServiceImplTest {
 
         Assertions.assertNotNull(result);
         Assertions.assertEquals(500L, result.getRideId());
-        Mockito.verify(driverRepository).findFirstByStatus(DriverStatus.AVAILABLE);
+        Assertions.assertFalse(driverAvailabilityIndex.isAvailable(101L));
+        Mockito.verify(driverRepository, Mockito.never()).findFirstByStatus(DriverStatus.AVAILABLE);
     }
 
     // TEST 2: Check Locations List
@@ -80,6 +111,68 @@ public class RideServiceImplTest {
         Assertions.assertTrue(locations.contains("Guindy"));
     }
 
+    // TEST 2b: Location lookup ignores case and returns the canonical list unchanged
+    @Test
+    public void testCalculateFare_LocationsAreCaseInsensitive() {
+        Assertions.assertEquals(rideServiceImpl.calculateFare("Adyar", "Guindy"),
+                rideServiceImpl.calculateFare("ADYAR", "guindy"));
+        Assertions.assertSame(rideServiceImpl.getAvailableLocations(), rideServiceImpl.getAvailableLocations());
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> rideServiceImpl.getAvailableLocations().add("Moon"));
+    }
+
+    @Test
+    public void testCalculateFare_UnlistedPairUsesShortestPath() {
+        // Kelambakkam -> Siruseri -> Navalur -> Sholinganallur -> Marina = 5 + 7 + 5 + 22 km, at 7/km
+        Assertions.assertEquals(273.0, rideServiceImpl.calculateFare("Kelambakkam", "Marina"));
+        Assertions.assertEquals(273.0, rideServiceImpl.calculateFare("Marina", "Kelambakkam"));
+    }
+
+    @Test
+    public void testCalculateFare_PointsArePricedOverTheRoadGraph() {
+        double[] nearAdyar = {13.0050, 80.2500};
+        double[] outsideTheList = {12.9700, 80.1500};
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> rideServiceImpl.calculateFare(nearAdyar, outsideTheList));
+
+        Mockito.when(routingEngine.isLoaded()).thenReturn(true);
+        Mockito.when(routingEngine.distanceKm(nearAdyar, outsideTheList)).thenReturn(12.34);
+        Assertions.assertEquals(pricingConfig.current().fareFor(12.3), rideServiceImpl.calculateFare(nearAdyar, outsideTheList));
+
+        Mockito.when(routingEngine.distanceKm(outsideTheList, nearAdyar)).thenReturn(Double.POSITIVE_INFINITY);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> rideServiceImpl.calculateFare(outsideTheList, nearAdyar));
+    }
+
+    @Test
+    public void testCalculateFare_SameLocation_ShouldThrowException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rideServiceImpl.calculateFare("Adyar", "adyar"));
+    }
+
+    @Test
+    public void testEstimateFares_ReportsBadRoutesWithoutFailingTheBatch() {
+        List<FareQuoteDto> quotes = rideServiceImpl.estimateFares(List.of(
+                new RoutePairDto("Adyar", "Guindy"),
+                new RoutePairDto("Adyar", "Moon"),
+                new RoutePairDto("guindy", "ADYAR")));
+
+        Assertions.assertEquals(70.0, quotes.get(0).getFare());
+        Assertions.assertNull(quotes.get(1).getFare());
+        Assertions.assertTrue(quotes.get(1).getError().contains("Invalid Location"));
+        Assertions.assertEquals(70.0, quotes.get(2).getFare());
+    }
+
+    @Test
+    public void testCalculateFare_NewSurgeVersionIsNotServedFromCache() {
+        Assertions.assertEquals(70.0, rideServiceImpl.calculateFare("Adyar", "Guindy"));
+
+        Mockito.doReturn(1.5).when(surgePricingEngine).multiplier(Zone.CENTRAL_SOUTH);
+        // Same version: still the cached quote
+        Assertions.assertEquals(70.0, rideServiceImpl.calculateFare("Adyar", "Guindy"));
+        Mockito.doReturn(1L).when(surgePricingEngine).version();
+        Assertions.assertEquals(105.0, rideServiceImpl.calculateFare("Adyar", "Guindy"));
+    }
+
     // TEST 3: Invalid Route
     @Test
     public void testBookRide_InvalidRoute_ShouldThrowException() {
@@ -107,11 +200,7 @@ public class RideServiceImplTest {
 
         Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(mockUser));
 
-        // REMOVED: Mockito.when(rideRepository.existsByUserAndStatus(...))
-        // REASON: The code fails at the driver check before reaching the ride check.
-
-        Mockito.when(driverRepository.findFirstByStatus(DriverStatus.AVAILABLE))
-                .thenReturn(Optional.empty());
+        // The index is empty, so nobody can be claimed
 
         Exception exception = Assertions.assertThrows(ResourceNotFoundException.class, () -> {
             rideServiceImpl.bookRide(request);
@@ -133,9 +222,8 @@ public class RideServiceImplTest {
 
         Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(mockUser));
 
-        // We must provide a driver so the code proceeds to the "User Busy" check
-        Mockito.when(driverRepository.findFirstByStatus(DriverStatus.AVAILABLE))
-                .thenReturn(Optional.of(new Driver()));
+        // The "User Busy" check runs before a driver is claimed, so the driver stays free
+        driverAvailabilityIndex.update(101L, DriverStatus.AVAILABLE);
 
         Mockito.when(rideRepository.existsByUserAndStatus(mockUser, RideStatus.BOOKED)).thenReturn(true);
 
@@ -144,5 +232,6 @@ public class RideServiceImplTest {
         });
 
         Assertions.assertTrue(exception.getMessage().contains("already have an ongoing ride"));
+        Assertions.assertTrue(driverAvailabilityIndex.isAvailable(101L));
     }
 }
\ No newline at end of file
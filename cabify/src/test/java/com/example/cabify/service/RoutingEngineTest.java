@@ -0,0 +1,75 @@
+package com.example.cabify.service;
+
+import com.example.cabify.util.RoadGraph;
+import com.example.cabify.util.RoadGraphTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class RoutingEngineTest {
+
+    @TempDir
+    Path dir;
+
+    private RoutingEngine routingEngine;
+    private RoadGraph graph;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Path file = dir.resolve("grid.graph");
+        // Nodes about 900 m apart north-south and 570 m east-west
+        RoadGraphTest.writeGrid(file, 50);
+        graph = RoadGraph.open(file);
+
+        routingEngine = new RoutingEngine();
+        ReflectionTestUtils.setField(routingEngine, "graphFile", file.toString());
+        ReflectionTestUtils.setField(routingEngine, "snapRadiusKm", 0.5);
+        ReflectionTestUtils.setField(routingEngine, "maxSettledNodes", 200_000);
+        routingEngine.load();
+    }
+
+    @Test
+    public void testDistance_SnapsPointsToTheNearestNode() {
+        int last = graph.nodeCount() - 1;
+        // A little off the first and last nodes, well inside the snap radius
+        double[] from = {graph.latitude(0) + 0.001, graph.longitude(0) + 0.001};
+        double[] to = {graph.latitude(last) - 0.001, graph.longitude(last) - 0.001};
+
+        Assertions.assertEquals(graph.distanceKm(0, last), routingEngine.distanceKm(from, to), 1e-9);
+    }
+
+    @Test
+    public void testDistance_RejectsInvalidPointsAndPointsOffTheMap() {
+        double[] onTheMap = {graph.latitude(0), graph.longitude(0)};
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> routingEngine.distanceKm(new double[]{Double.NaN, 80.1}, onTheMap));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> routingEngine.distanceKm(onTheMap, new double[]{95.0, 80.1}));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> routingEngine.distanceKm(onTheMap, new double[]{13.0, 200.0}));
+        // London: snaps to nothing rather than to the closest corner of Chennai
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> routingEngine.distanceKm(new double[]{51.5, -0.12}, onTheMap));
+        // Just past the grid's southern edge, more than 500 m from any node
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> routingEngine.distanceKm(new double[]{graph.latitude(0) - 0.01, graph.longitude(0)}, onTheMap));
+    }
+
+    @Test
+    public void testDistance_SearchOverItsLimitIsNoRoute() {
+        ReflectionTestUtils.setField(routingEngine, "maxSettledNodes", 100);
+        int last = graph.nodeCount() - 1;
+        double[] from = {graph.latitude(0), graph.longitude(0)};
+        double[] to = {graph.latitude(last), graph.longitude(last)};
+
+        Assertions.assertEquals(Double.POSITIVE_INFINITY, routingEngine.distanceKm(from, to));
+        // Close pairs still fit under the limit
+        double[] nextDoor = {graph.latitude(1), graph.longitude(1)};
+        Assertions.assertEquals(graph.distanceKm(0, 1), routingEngine.distanceKm(from, nextDoor), 1e-9);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.cabify.service;
+
+import com.example.cabify.model.Zone;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class SurgePricingEngineTest {
+
+    @Test
+    public void testTargetMultiplier() {
+        // Quiet zone, or no more demand than cabs: no surge
+        Assertions.assertEquals(1.0, SurgePricingEngine.targetMultiplier(5, 5, 0, 2.5));
+        Assertions.assertEquals(1.0, SurgePricingEngine.targetMultiplier(20, 0, 20, 2.5));
+        // 40 attempts on 10 cabs: +0.75
+        Assertions.assertEquals(1.7, SurgePricingEngine.targetMultiplier(40, 0, 10, 2.5));
+        // Half the bookings failing adds another +0.5, then the cap kicks in
+        Assertions.assertEquals(2.2, SurgePricingEngine.targetMultiplier(40, 20, 10, 2.5));
+        Assertions.assertEquals(2.5, SurgePricingEngine.targetMultiplier(400, 300, 10, 2.5));
+    }
+
+    @Test
+    public void testRecompute_RisesAtOnceAndFallsOneStepAtATime() {
+        DriverAvailabilityIndex index = Mockito.mock(DriverAvailabilityIndex.class);
+        SurgePricingEngine engine = new SurgePricingEngine();
+        ReflectionTestUtils.setField(engine, "driverAvailabilityIndex", index);
+        ReflectionTestUtils.setField(engine, "enabled", true);
+        ReflectionTestUtils.setField(engine, "maxMultiplier", 2.5);
+
+        // No free cabs in OMR and every booking there fails
+        for (int i = 0; i < 12; i++) {
+            engine.recordAttempt(Zone.OMR);
+            engine.recordFailure(Zone.OMR);
+        }
+        engine.recompute();
+        Assertions.assertEquals(2.5, engine.multiplier(Zone.OMR));
+        Assertions.assertEquals(1.0, engine.multiplier(Zone.WEST));
+
+        // Cabs come back; the multiplier eases down instead of dropping straight to the new target
+        Mockito.when(index.availableCount(Zone.OMR)).thenReturn(1_000);
+        engine.recompute();
+        Assertions.assertEquals(2.4, engine.multiplier(Zone.OMR));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.cabify.service;
+
+import com.example.cabify.util.JwtPrincipal;
+import com.example.cabify.util.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class VerifiedTokenCacheTest {
+
+    private static final String SECRET = "test-secret-key-that-is-at-least-32-bytes-long";
+
+    private final JwtUtil jwtUtil = Mockito.spy(new JwtUtil(SECRET));
+
+    private VerifiedTokenCache newCache(SimpleMeterRegistry registry) {
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil);
+        ReflectionTestUtils.setField(cache, "meterRegistry", registry);
+        cache.bindMetrics();
+        return cache;
+    }
+
+    @Test
+    public void testValidate_VerifiesEachTokenOnceAndReportsHits() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VerifiedTokenCache cache = newCache(registry);
+        String token = jwtUtil.generateToken("ravi@example.com", 12L, JwtPrincipal.Role.DRIVER);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<JwtPrincipal>> futures = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            futures.add(pool.submit(() -> cache.validate(token)));
+        }
+        for (Future<JwtPrincipal> future : futures) {
+            Assertions.assertEquals(12L, future.get().id());
+        }
+        pool.shutdown();
+
+        Mockito.verify(jwtUtil, Mockito.times(1)).validate(token);
+        Assertions.assertEquals(999, registry.get("cache.gets").tag("cache", "auth.tokens").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    public void testValidate_NeverCachesABadToken() {
+        VerifiedTokenCache cache = newCache(new SimpleMeterRegistry());
+        String token = jwtUtil.generateToken("ravi@example.com", 12L, JwtPrincipal.Role.DRIVER);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        Assertions.assertThrows(JwtException.class, () -> cache.validate(tampered));
+        Assertions.assertThrows(JwtException.class, () -> cache.validate(tampered));
+        Mockito.verify(jwtUtil, Mockito.times(2)).validate(tampered);
+    }
+
+    @Test
+    public void testValidate_EntryExpiresWithItsToken() throws Exception {
+        VerifiedTokenCache cache = newCache(new SimpleMeterRegistry());
+        // exp is kept in whole seconds, so this token dies within the next second
+        String token = Jwts.builder()
+                .setSubject("asha@example.com")
+                .setId("short-lived")
+                .claim("uid", 3L)
+                .claim("role", "RIDER")
+                .setExpiration(new Date(System.currentTimeMillis() + 1_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        Assertions.assertEquals(3L, cache.validate(token).id());
+        Thread.sleep(1_100);
+
+        Assertions.assertThrows(ExpiredJwtException.class, () -> cache.validate(token));
+    }
+}
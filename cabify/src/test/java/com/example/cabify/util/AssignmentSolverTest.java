@@ -0,0 +1,117 @@
+package com.example.cabify.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class AssignmentSolverTest {
+
+    // Average pickup distances for the seeded rush-hour scenario below
+    private static final double GREEDY_AVG_PICKUP_KM = 3.996;
+    private static final double BATCHED_AVG_PICKUP_KM = 3.842;
+
+    @Test
+    public void testSolve_MatchesBruteForceOnSmallMatrices() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            int rows = 1 + random.nextInt(5);
+            int cols = 1 + random.nextInt(5);
+            double[][] cost = new double[rows][cols];
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    cost[i][j] = random.nextInt(100);
+                }
+            }
+
+            int[] assignment = AssignmentSolver.solve(cost);
+
+            Assertions.assertEquals(Math.min(rows, cols), matchedCount(assignment));
+            Assertions.assertEquals(bruteForce(cost, 0, new boolean[cols], Math.min(rows, cols)), totalCost(cost, assignment), 1e-9);
+        }
+    }
+
+    // Rush hour around three hubs: the batch optimum must never be worse than first-come nearest-cab
+    @Test
+    public void testSolve_BeatsGreedyOnTotalPickupDistance() {
+        Random random = new Random(11);
+        double[][] hubs = {{13.0067, 80.2206}, {13.0418, 80.2341}, {12.9010, 80.2279}}; // Guindy, TNagar, Sholinganallur
+        int riders = 120;
+        int drivers = 150;
+        double[][] pickups = new double[riders][];
+        for (int i = 0; i < riders; i++) {
+            double[] hub = hubs[random.nextInt(hubs.length)];
+            pickups[i] = new double[]{hub[0] + random.nextGaussian() * 0.005, hub[1] + random.nextGaussian() * 0.005};
+        }
+        double[][] positions = new double[drivers][];
+        for (int j = 0; j < drivers; j++) {
+            positions[j] = new double[]{12.85 + random.nextDouble() * 0.25, 80.15 + random.nextDouble() * 0.15};
+        }
+        double[][] cost = new double[riders][drivers];
+        for (int i = 0; i < riders; i++) {
+            for (int j = 0; j < drivers; j++) {
+                cost[i][j] = GeoGridIndex.distanceKm(pickups[i][0], pickups[i][1], positions[j][0], positions[j][1]);
+            }
+        }
+
+        double greedy = 0;
+        boolean[] taken = new boolean[drivers];
+        for (int i = 0; i < riders; i++) {
+            int best = -1;
+            for (int j = 0; j < drivers; j++) {
+                if (!taken[j] && (best < 0 || cost[i][j] < cost[i][best])) {
+                    best = j;
+                }
+            }
+            taken[best] = true;
+            greedy += cost[i][best];
+        }
+
+        double batched = totalCost(cost, AssignmentSolver.solve(cost));
+
+        double greedyAvgKm = greedy / riders;
+        double batchedAvgKm = batched / riders;
+        Assertions.assertTrue(batchedAvgKm < greedyAvgKm, "batched " + batchedAvgKm + " km vs greedy " + greedyAvgKm + " km");
+        Assertions.assertEquals(GREEDY_AVG_PICKUP_KM, greedyAvgKm, 1e-3);
+        Assertions.assertEquals(BATCHED_AVG_PICKUP_KM, batchedAvgKm, 1e-3);
+    }
+
+    private static int matchedCount(int[] assignment) {
+        int matched = 0;
+        for (int col : assignment) {
+            if (col >= 0) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    private static double totalCost(double[][] cost, int[] assignment) {
+        double total = 0;
+        for (int i = 0; i < assignment.length; i++) {
+            if (assignment[i] >= 0) {
+                total += cost[i][assignment[i]];
+            }
+        }
+        return total;
+    }
+
+    // Cheapest way to match exactly `remaining` of the rows from `row` onwards
+    private static double bruteForce(double[][] cost, int row, boolean[] used, int remaining) {
+        if (remaining == 0) {
+            return 0;
+        }
+        if (cost.length - row < remaining) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double best = bruteForce(cost, row + 1, used, remaining); // leave this row unmatched
+        for (int j = 0; j < used.length; j++) {
+            if (!used[j]) {
+                used[j] = true;
+                best = Math.min(best, cost[row][j] + bruteForce(cost, row + 1, used, remaining - 1));
+                used[j] = false;
+            }
+        }
+        return best;
+    }
+}
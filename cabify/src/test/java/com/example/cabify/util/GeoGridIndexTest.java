@@ -0,0 +1,54 @@
+package com.example.cabify.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class GeoGridIndexTest {
+
+    @Test
+    public void testNearest_MatchesBruteForceOverLargeFleet() {
+        GeoGridIndex grid = new GeoGridIndex(0.01, 50.0);
+        Random random = new Random(42);
+        int drivers = 30_000;
+        double[][] points = new double[drivers][];
+        for (int id = 0; id < drivers; id++) {
+            // Spread over greater Chennai
+            points[id] = new double[]{12.75 + random.nextDouble() * 0.4, 80.05 + random.nextDouble() * 0.3};
+            grid.put(id, points[id][0], points[id][1]);
+        }
+
+        for (int query = 0; query < 50; query++) {
+            double lat = 12.75 + random.nextDouble() * 0.4;
+            double lon = 80.05 + random.nextDouble() * 0.3;
+            List<GeoGridIndex.Hit> hits = grid.nearest(lat, lon, 5, id -> id % 3 != 0);
+
+            List<Integer> expected = IntStream.range(0, drivers)
+                    .filter(id -> id % 3 != 0)
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(id -> GeoGridIndex.distanceKm(lat, lon, points[id][0], points[id][1])))
+                    .limit(5)
+                    .toList();
+            Assertions.assertEquals(expected, hits.stream().map(hit -> (int) hit.id()).toList());
+        }
+    }
+
+    @Test
+    public void testPutAndRemove_MovesPointsBetweenCells() {
+        GeoGridIndex grid = new GeoGridIndex(0.01, 50.0);
+        grid.put(1L, 13.0012, 80.2565);
+        grid.put(1L, 12.9010, 80.2279);
+        grid.put(2L, 13.0067, 80.2206);
+
+        Assertions.assertEquals(2, grid.size());
+        Assertions.assertEquals(1L, grid.nearest(12.9, 80.23, 1, id -> true).get(0).id());
+
+        grid.remove(1L);
+        Assertions.assertEquals(2L, grid.nearest(12.9, 80.23, 1, id -> true).get(0).id());
+        Assertions.assertTrue(grid.nearest(0.0, 0.0, 1, id -> true).isEmpty());
+    }
+}
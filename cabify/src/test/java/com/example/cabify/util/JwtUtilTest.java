@@ -0,0 +1,63 @@
+package com.example.cabify.util;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+public class JwtUtilTest {
+
+    private static final String SECRET = "test-secret-key-that-is-at-least-32-bytes-long";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET);
+
+    @Test
+    public void testValidate_ReturnsSubjectExpiryAndRole() {
+        String token = jwtUtil.generateToken("ravi@example.com", 7L, JwtPrincipal.Role.DRIVER);
+
+        JwtPrincipal principal = jwtUtil.validate(token);
+
+        Assertions.assertEquals("ravi@example.com", principal.subject());
+        Assertions.assertEquals(7L, principal.id());
+        Assertions.assertEquals(JwtPrincipal.Role.DRIVER, principal.role());
+        Assertions.assertNotNull(principal.tokenId());
+        Assertions.assertTrue(principal.isSelfContained());
+        Assertions.assertTrue(principal.expiresAt().after(new Date()));
+    }
+
+    @Test
+    public void testValidate_RejectsTamperedExpiredAndMalformedTokens() {
+        String token = jwtUtil.generateToken("ravi@example.com", 7L, JwtPrincipal.Role.RIDER);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        String expired = Jwts.builder()
+                .setSubject("ravi@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() - 1_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        Assertions.assertThrows(JwtException.class, () -> jwtUtil.validate(tampered));
+        Assertions.assertThrows(ExpiredJwtException.class, () -> jwtUtil.validate(expired));
+        Assertions.assertThrows(JwtException.class, () -> jwtUtil.validate("not.a.jwt"));
+        Assertions.assertThrows(JwtException.class, () -> jwtUtil.validate("abc"));
+    }
+
+    @Test
+    public void testValidate_TokenWithoutIdOrRoleClaims() {
+        // Issued before tokens carried an id and role
+        String token = Jwts.builder()
+                .setSubject("asha@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        JwtPrincipal principal = jwtUtil.validate(token);
+        Assertions.assertNull(principal.role());
+        Assertions.assertFalse(principal.isSelfContained());
+    }
+}
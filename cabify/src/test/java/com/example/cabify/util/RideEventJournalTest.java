@@ -0,0 +1,72 @@
+package com.example.cabify.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RideEventJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testAppend_RollsOverSegmentsAndReplaysInOrder() throws IOException {
+        RideEventJournal journal = RideEventJournal.open(dir, 4);
+        for (long i = 0; i < 10; i++) {
+            Assertions.assertEquals(i, journal.append(RideEventJournal.Type.RIDE_BOOKED, 1_000 + i, i, 7, 9, 3, 120.5));
+        }
+        journal.close();
+
+        Assertions.assertTrue(Files.exists(dir.resolve("events-000000000002.seg")));
+        List<RideEventJournal.Event> events = new ArrayList<>();
+        journal.replay(0, 10, events::add);
+        Assertions.assertEquals(10, events.size());
+        Assertions.assertEquals(new RideEventJournal.Event(RideEventJournal.Type.RIDE_BOOKED, 1_009, 9, 7, 9, 3, 120.5),
+                events.get(9));
+
+        events.clear();
+        journal.replay(3, 6, events::add);
+        Assertions.assertEquals(List.of(3L, 4L, 5L), events.stream().map(RideEventJournal.Event::rideId).toList());
+    }
+
+    @Test
+    public void testOpen_ContinuesAfterTheLastEvent() throws IOException {
+        RideEventJournal journal = RideEventJournal.open(dir, 4);
+        for (int i = 0; i < 6; i++) {
+            journal.append(RideEventJournal.Type.RIDE_ENDED, i, i, 1, 2, -1, 50);
+        }
+        journal.close();
+
+        RideEventJournal reopened = RideEventJournal.open(dir, 4);
+        Assertions.assertEquals(6, reopened.position());
+        Assertions.assertEquals(6, reopened.append(RideEventJournal.Type.RATING_SUBMITTED, 6, 6, 1, 2, -1, 5));
+        reopened.close();
+    }
+
+    @Test
+    public void testOpen_IgnoresARecordWithoutItsTypeByte() throws IOException {
+        RideEventJournal journal = RideEventJournal.open(dir, 4);
+        journal.append(RideEventJournal.Type.PAYMENT_MADE, 1, 1, 1, 2, -1, 80);
+        journal.close();
+        // A crash mid-append leaves the body of the next record but never its type byte
+        try (FileChannel channel = FileChannel.open(dir.resolve("events-000000000000.seg"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putLong(0, 42L), RideEventJournal.RECORD_BYTES + 16);
+        }
+
+        RideEventJournal reopened = RideEventJournal.open(dir, 4);
+        Assertions.assertEquals(1, reopened.position());
+        List<RideEventJournal.Event> events = new ArrayList<>();
+        reopened.replay(0, 2, events::add);
+        Assertions.assertEquals(1, events.size());
+        reopened.close();
+    }
+}
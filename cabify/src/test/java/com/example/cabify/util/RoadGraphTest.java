@@ -0,0 +1,142 @@
+package com.example.cabify.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+public class RoadGraphTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testDistance_MatchesDijkstraOnRandomGraph() throws IOException {
+        Random random = new Random(11);
+        int nodes = 2_000;
+        double[] lat = new double[nodes];
+        double[] lon = new double[nodes];
+        for (int n = 0; n < nodes; n++) {
+            lat[n] = 12.75 + random.nextDouble() * 0.4;
+            lon[n] = 80.05 + random.nextDouble() * 0.25;
+        }
+        // Random one-way streets; the last node gets none, so nothing can reach it
+        List<List<int[]>> adjacency = new ArrayList<>();
+        for (int n = 0; n < nodes; n++) {
+            adjacency.add(new ArrayList<>());
+        }
+        for (int e = 0; e < 10_000; e++) {
+            int from = random.nextInt(nodes - 1);
+            int to = random.nextInt(nodes - 1);
+            adjacency.get(from).add(new int[]{to});
+        }
+        int[] firstEdge = new int[nodes + 1];
+        int[] targets = new int[10_000];
+        float[] lengths = new float[10_000];
+        int e = 0;
+        for (int n = 0; n < nodes; n++) {
+            firstEdge[n] = e;
+            for (int[] edge : adjacency.get(n)) {
+                targets[e] = edge[0];
+                double straight = GeoGridIndex.distanceKm(lat[n], lon[n], lat[edge[0]], lon[edge[0]]);
+                lengths[e] = Math.nextUp((float) (straight * (1.0 + random.nextDouble())));
+                e++;
+            }
+        }
+        firstEdge[nodes] = e;
+        Path file = dir.resolve("random.graph");
+        RoadGraph.write(file, lat, lon, firstEdge, targets, lengths);
+
+        RoadGraph graph = RoadGraph.open(file);
+        Assertions.assertEquals(nodes, graph.nodeCount());
+        for (int q = 0; q < 200; q++) {
+            int from = random.nextInt(nodes);
+            int to = random.nextInt(nodes);
+            double expected = dijkstra(firstEdge, targets, lengths, from)[to];
+            Assertions.assertEquals(expected, graph.distanceKm(from, to), 1e-9, from + " -> " + to);
+        }
+        Assertions.assertEquals(Double.POSITIVE_INFINITY, graph.distanceKm(0, nodes - 1));
+    }
+
+    @Test
+    public void testDistance_GridCornersAreConnected() throws IOException {
+        Path file = dir.resolve("grid.graph");
+        writeGrid(file, 50);
+
+        RoadGraph graph = RoadGraph.open(file);
+        Assertions.assertEquals(4 * 50 * 49, graph.edgeCount());
+        // Opposite corners of the grid are connected, and never closer by road than in a straight line
+        int last = graph.nodeCount() - 1;
+        double straight = GeoGridIndex.distanceKm(graph.latitude(0), graph.longitude(0),
+                graph.latitude(last), graph.longitude(last));
+        double road = graph.distanceKm(0, last);
+        Assertions.assertTrue(road >= straight && road < straight * 1.6);
+        Assertions.assertEquals(0, graph.nearestNode(graph.latitude(0), graph.longitude(0)));
+    }
+
+    @Test
+    public void testOpen_RejectsOtherFiles() throws IOException {
+        Path file = Files.write(dir.resolve("not.graph"), new byte[64]);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RoadGraph.open(file));
+    }
+
+    // side x side grid of two-way streets over the city, each 10% longer than the straight line
+    public static void writeGrid(Path file, int side) throws IOException {
+        int nodes = side * side;
+        double[] lat = new double[nodes];
+        double[] lon = new double[nodes];
+        for (int n = 0; n < nodes; n++) {
+            lat[n] = 12.75 + (n / side) * 0.4 / (side - 1);
+            lon[n] = 80.05 + (n % side) * 0.25 / (side - 1);
+        }
+        int[] firstEdge = new int[nodes + 1];
+        int[] targets = new int[4 * side * (side - 1)];
+        float[] lengths = new float[targets.length];
+        int e = 0;
+        for (int n = 0; n < nodes; n++) {
+            firstEdge[n] = e;
+            int[] neighbours = {n - side, n + side, n % side > 0 ? n - 1 : -1, n % side < side - 1 ? n + 1 : -1};
+            for (int next : neighbours) {
+                if (next < 0 || next >= nodes) {
+                    continue;
+                }
+                targets[e] = next;
+                lengths[e] = Math.nextUp((float) (GeoGridIndex.distanceKm(lat[n], lon[n], lat[next], lon[next]) * 1.1));
+                e++;
+            }
+        }
+        firstEdge[nodes] = e;
+        RoadGraph.write(file, lat, lon, firstEdge, targets, lengths);
+    }
+
+    private static double[] dijkstra(int[] firstEdge, int[] targets, float[] lengths, int source) {
+        double[] dist = new double[firstEdge.length - 1];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        queue.add(new double[]{0, source});
+        while (!queue.isEmpty()) {
+            double[] top = queue.poll();
+            int node = (int) top[1];
+            if (top[0] > dist[node]) {
+                continue;
+            }
+            for (int e = firstEdge[node]; e < firstEdge[node + 1]; e++) {
+                double via = dist[node] + lengths[e];
+                if (via < dist[targets[e]]) {
+                    dist[targets[e]] = via;
+                    queue.add(new double[]{via, targets[e]});
+                }
+            }
+        }
+        return dist;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.cabify.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SlidingWindowCounterTest {
+
+    @Test
+    public void testSum_DropsBucketsThatLeftTheWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(3, 1_000);
+        counter.increment(0);
+        counter.add(1_500, 4);
+        counter.increment(2_999);
+
+        Assertions.assertEquals(6, counter.sum(2_999));
+        // Bucket 0 has rolled out, and its slot is reused for t = 3000
+        Assertions.assertEquals(5, counter.sum(3_000));
+        counter.increment(3_000);
+        Assertions.assertEquals(6, counter.sum(3_000));
+        Assertions.assertEquals(0, counter.sum(10_000));
+    }
+
+    @Test
+    public void testIncrement_LosesNothingUnderContention() throws Exception {
+        SlidingWindowCounter counter = new SlidingWindowCounter(10, 1_000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    counter.increment(5_000 + i % 3_000);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        Assertions.assertEquals(400_000, counter.sum(7_999));
+    }
+}